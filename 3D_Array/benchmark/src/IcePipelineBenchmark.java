@@ -0,0 +1,226 @@
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The IcePipelineBenchmark class measures each phase of the ice sheet analysis on its own:
+ * textDataToArray, weakSpots and cracks of IceDataAnalysis, the store loader, and every IceKernelBackend.
+ * The total time printed by IceDataAnalysis mixes JIT warm-up, I/O and printing, here every phase
+ * is warmed up first and timed without any output.
+ *
+ * The benchmarks follow the method of JMH: each one runs in its own JVM (a fork) with the JVM options
+ * of this run, does warm-up iterations, then measured iterations, and feeds every result to a sink
+ * so it cannot be optimized away. The input is written by IceSheetGenerator, or an existing file is used.
+ * Results can be saved to a CSV file and compared with an earlier run to catch regressions.
+ *
+ * Usage (from 3D_Array):
+ *     javac -d out src/*.java && javac -d out -cp out benchmark/src/*.java
+ *     java -cp out IcePipelineBenchmark [--preset=sample|small|medium|large|huge|SxRxC] [--density=0.01]
+ *          [--seed=42] [--file=existing.txt] [--warmup=3] [--iterations=5] [--forks=1]
+ *          [--only=name,...] [--save=results.csv] [--compare=results.csv] [--threshold=10]
+ * Large presets need a larger heap, for example java -Xmx16g -cp out IcePipelineBenchmark --preset=large.
+ * Created on October 17, 2026
+ * @author Maharshi Patel
+ */
+public class IcePipelineBenchmark {
+
+    // The phases that can be measured, in the order they run.
+    private static final String[] BENCHMARKS = {
+            "textDataToArray", "loadStore", "weakSpots", "cracks", "FUSED", "BITSET", "VECTOR"
+    };
+
+    // Printed by a fork in front of its result, so the result can be told apart from other output.
+    private static final String RESULT_PREFIX = "RESULT ";
+
+    // Receives every result so the JIT cannot drop the work that produced it.
+    private static volatile long sink;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            String[] keyAndValue = arg.replaceFirst("^--", "").split("=", 2);
+            options.put(keyAndValue[0], keyAndValue.length > 1 ? keyAndValue[1] : "");
+        }
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "3"));
+        int iterations = Integer.parseInt(options.getOrDefault("iterations", "5"));
+
+        // A fork measures one benchmark on the file it was given and prints its result.
+        if (options.containsKey("fork")) {
+            long[] nanos = run(options.get("fork"), options.get("file"), warmup, iterations);
+            System.out.println(RESULT_PREFIX + Arrays.toString(nanos).replaceAll("[\\[\\] ]", ""));
+            return;
+        }
+
+        // Write the synthetic input unless an existing file was given.
+        String textFilePath = options.get("file");
+        Path generated = null;
+        if (textFilePath == null) {
+            IceSheetGenerator generator = IceSheetGenerator.preset(options.getOrDefault("preset", "medium"),
+                    Double.parseDouble(options.getOrDefault("density", String.valueOf(IceSheetGenerator.DEFAULT_DENSITY))),
+                    Long.parseLong(options.getOrDefault("seed", String.valueOf(IceSheetGenerator.DEFAULT_SEED))));
+            generated = Files.createTempFile("icesheets", ".txt");
+            generator.writeText(generated);
+            textFilePath = generated.toString();
+        }
+        IceSheetIndex index = IceSheetIndex.build(textFilePath);
+        long cells = 0;
+        for (int iceSheet = 0; iceSheet < index.sheetCount(); iceSheet++) {
+            cells += (long) index.rows(iceSheet) * index.columns(iceSheet);
+        }
+        System.out.printf("%s: %d bytes, %d cells\n\n", textFilePath, Files.size(Path.of(textFilePath)), cells);
+
+        List<String> benchmarks = options.containsKey("only")
+                ? Arrays.asList(options.get("only").split(","))
+                : Arrays.asList(BENCHMARKS);
+        int forks = Integer.parseInt(options.getOrDefault("forks", "1"));
+
+        Map<String, Double> medians = new LinkedHashMap<>();
+        System.out.printf("%-16s %10s %10s %10s %12s\n", "benchmark", "median ms", "min ms", "max ms", "Mcells/s");
+        for (String benchmark : benchmarks) {
+            long[] nanos = new long[0];
+            for (int fork = 0; fork < forks; fork++) {
+                long[] forkNanos = fork(benchmark, textFilePath, warmup, iterations);
+                if (forkNanos == null) {
+                    break;
+                }
+                nanos = concatenate(nanos, forkNanos);
+            }
+            if (nanos.length == 0) {
+                System.out.printf("%-16s failed\n", benchmark);
+                continue;
+            }
+            Arrays.sort(nanos);
+            double median = nanos[nanos.length / 2] / 1e6;
+            medians.put(benchmark, median);
+            System.out.printf("%-16s %10.2f %10.2f %10.2f %12.1f\n", benchmark, median, nanos[0] / 1e6,
+                    nanos[nanos.length - 1] / 1e6, cells / median / 1e3);
+        }
+
+        if (generated != null) {
+            Files.delete(generated);
+        }
+        if (options.containsKey("save")) {
+            save(Path.of(options.get("save")), medians);
+        }
+        if (options.containsKey("compare")) {
+            double threshold = Double.parseDouble(options.getOrDefault("threshold", "10"));
+            if (!compare(Path.of(options.get("compare")), medians, threshold)) {
+                System.exit(1);
+            }
+        }
+    }
+
+    /**
+     * Runs one benchmark in a new JVM with the same class path and JVM options, and returns the
+     * time of each measured iteration in nanoseconds, or null if the fork failed.
+     */
+    private static long[] fork(String benchmark, String textFilePath, int warmup, int iterations) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+        command.addAll(List.of("-cp", System.getProperty("java.class.path"), "IcePipelineBenchmark",
+                "--fork=" + benchmark, "--file=" + textFilePath, "--warmup=" + warmup, "--iterations=" + iterations));
+
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        long[] nanos = null;
+        for (String line : new String(process.getInputStream().readAllBytes()).split("\n")) {
+            if (line.startsWith(RESULT_PREFIX)) {
+                nanos = Arrays.stream(line.substring(RESULT_PREFIX.length()).split(",")).mapToLong(Long::parseLong).toArray();
+            }
+            else if (!line.isBlank()) {
+                System.out.println("  " + line);
+            }
+        }
+        process.waitFor();
+        return nanos;
+    }
+
+    /**
+     * Sets up a benchmark, runs the warm-up iterations, then returns the time of each measured iteration.
+     */
+    private static long[] run(String benchmark, String textFilePath, int warmup, int iterations) {
+        Runnable body;
+        switch (benchmark) {
+            case "textDataToArray":
+                body = () -> sink += IceDataAnalysis.textDataToArray(textFilePath).length;
+                break;
+            case "loadStore":
+                body = () -> sink += new IceDataLoader(textFilePath).loadStore(false).sheetCount();
+                break;
+            case "weakSpots": {
+                int[][][] dataArray = IceDataAnalysis.textDataToArray(textFilePath);
+                body = () -> sink += IceDataAnalysis.weakSpots(dataArray).length;
+                break;
+            }
+            case "cracks": {
+                int[][][] dataArray = IceDataAnalysis.textDataToArray(textFilePath);
+                int[][][] weakSpotsArray = IceDataAnalysis.weakSpots(dataArray);
+                body = () -> sink += IceDataAnalysis.cracks(dataArray, weakSpotsArray).length;
+                break;
+            }
+            default: {
+                IceKernel kernel = IceKernelBackend.valueOf(benchmark);
+                IceSheetStore dataStore = new IceDataLoader(textFilePath).loadStore(false);
+                body = () -> sink += kernel.analyze(dataStore).getCrackCount();
+                break;
+            }
+        }
+
+        for (int iteration = 0; iteration < warmup; iteration++) {
+            body.run();
+        }
+        long[] nanos = new long[iterations];
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            long start = System.nanoTime();
+            body.run();
+            nanos[iteration] = System.nanoTime() - start;
+        }
+        return nanos;
+    }
+
+    /**
+     * Saves the median time of every benchmark as name,milliseconds lines.
+     */
+    private static void save(Path resultsPath, Map<String, Double> medians) throws IOException {
+        StringBuilder results = new StringBuilder("benchmark,median_ms\n");
+        for (Map.Entry<String, Double> median : medians.entrySet()) {
+            results.append(median.getKey()).append(',').append(median.getValue()).append('\n');
+        }
+        Files.writeString(resultsPath, results);
+    }
+
+    /**
+     * Compares the medians with a saved run and prints every benchmark that became slower than the threshold.
+     *
+     * @return True if no benchmark regressed.
+     */
+    private static boolean compare(Path resultsPath, Map<String, Double> medians, double thresholdPercent) throws IOException {
+        boolean passed = true;
+        System.out.printf("\nCompared with %s (threshold %.0f%%):\n", resultsPath, thresholdPercent);
+        for (String line : Files.readAllLines(resultsPath)) {
+            String[] fields = line.split(",");
+            if (fields.length != 2 || !medians.containsKey(fields[0])) {
+                continue;
+            }
+            double before = Double.parseDouble(fields[1]);
+            double after = medians.get(fields[0]);
+            double change = (after - before) / before * 100;
+            boolean regressed = change > thresholdPercent;
+            passed &= !regressed;
+            System.out.printf("%-16s %10.2f -> %10.2f ms %+7.1f%%%s\n", fields[0], before, after, change, regressed ? "  REGRESSION" : "");
+        }
+        return passed;
+    }
+
+    private static long[] concatenate(long[] first, long[] second) {
+        long[] joined = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, joined, first.length, second.length);
+        return joined;
+    }
+}
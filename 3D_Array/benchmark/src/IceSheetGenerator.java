@@ -0,0 +1,257 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+/**
+ * The IceSheetGenerator class makes synthetic ice sheet datasets for the benchmarks.
+ * The same seed always gives the same sheets, whether they are generated into a store or written
+ * as a text file in the format of ICESHEETS_F24.TXT. The sheet count, the range of the rows and
+ * columns, and the weak spot density (the fraction of cells that are weak spots) can all be chosen.
+ * Weak spots are 100, 150 or 200, every other cell is between 201 and 999.
+ *
+ * Sheets are generated one at a time, so text files far larger than the heap can be written.
+ * Usage (from 3D_Array):
+ *     java -cp out IceSheetGenerator <output file> [preset or SHEETSxROWSxCOLUMNS] [density] [seed]
+ * The presets are sample (13 small sheets, like the assignment's file), small (about 20 MB of text),
+ * medium (about 160 MB), large (about 2 GB) and huge (about 8 GB).
+ * Created on October 17, 2026
+ * @author Maharshi Patel
+ */
+public class IceSheetGenerator {
+
+    public static final double DEFAULT_DENSITY = 0.01;
+    public static final long DEFAULT_SEED = 42;
+
+    private static final int[] WEAK_SPOT_VALUES = {100, 150, 200};
+
+    // Size of the buffer used to write text files.
+    private static final int WRITE_BUFFER_BYTES = 1 << 20;
+
+    private final long seed;
+    private final double weakSpotDensity;
+    private final int[] rows;
+    private final int[] columns;
+
+    /**
+     * Creates a generator of sheets with random dimensions in the given ranges.
+     *
+     * @param seed The seed of the dimensions and the cells.
+     * @param sheets The number of sheets.
+     * @param minimumRows The fewest rows of a sheet.
+     * @param maximumRows The most rows of a sheet.
+     * @param minimumColumns The fewest columns of a sheet.
+     * @param maximumColumns The most columns of a sheet.
+     * @param weakSpotDensity The fraction of cells that are weak spots, between 0 and 1.
+     */
+    public IceSheetGenerator(long seed, int sheets, int minimumRows, int maximumRows, int minimumColumns, int maximumColumns,
+                             double weakSpotDensity) {
+        if (weakSpotDensity < 0 || weakSpotDensity > 1) {
+            throw new IllegalArgumentException("Weak spot density must be between 0 and 1: " + weakSpotDensity);
+        }
+        this.seed = seed;
+        this.weakSpotDensity = weakSpotDensity;
+        this.rows = new int[sheets];
+        this.columns = new int[sheets];
+
+        Random dimensions = new Random(seed);
+        for (int iceSheet = 0; iceSheet < sheets; iceSheet++) {
+            rows[iceSheet] = minimumRows + dimensions.nextInt(maximumRows - minimumRows + 1);
+            columns[iceSheet] = minimumColumns + dimensions.nextInt(maximumColumns - minimumColumns + 1);
+        }
+    }
+
+    /**
+     * Creates a generator from a preset name, or from sheet dimensions written as SHEETSxROWSxCOLUMNS.
+     *
+     * @param preset sample, small, medium, large, huge, or for example 8x1000x2000.
+     * @param weakSpotDensity The fraction of cells that are weak spots.
+     * @param seed The seed of the dimensions and the cells.
+     * @return The generator.
+     */
+    public static IceSheetGenerator preset(String preset, double weakSpotDensity, long seed) {
+        switch (preset) {
+            case "sample":
+                return new IceSheetGenerator(seed, 13, 3, 30, 3, 80, weakSpotDensity);
+            case "small":
+                return new IceSheetGenerator(seed, 50, 50, 500, 50, 500, weakSpotDensity);
+            case "medium":
+                return new IceSheetGenerator(seed, 20, 1000, 1000, 2000, 2000, weakSpotDensity);
+            case "large":
+                return new IceSheetGenerator(seed, 64, 2000, 2000, 4000, 4000, weakSpotDensity);
+            case "huge":
+                return new IceSheetGenerator(seed, 128, 3000, 3000, 5000, 5000, weakSpotDensity);
+            default:
+                String[] sizes = preset.split("x");
+                if (sizes.length != 3) {
+                    throw new IllegalArgumentException("Unknown preset: " + preset);
+                }
+                int rowCount = Integer.parseInt(sizes[1]);
+                int columnCount = Integer.parseInt(sizes[2]);
+                return new IceSheetGenerator(seed, Integer.parseInt(sizes[0]), rowCount, rowCount, columnCount, columnCount, weakSpotDensity);
+        }
+    }
+
+    /**
+     * Writes a generated dataset to a text file.
+     *
+     * @param args the output file, then optionally the preset, the weak spot density and the seed.
+     */
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println("Usage: java IceSheetGenerator <output file> [preset or SHEETSxROWSxCOLUMNS] [density] [seed]");
+            return;
+        }
+        IceSheetGenerator generator = preset(args.length > 1 ? args[1] : "sample",
+                args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_DENSITY,
+                args.length > 3 ? Long.parseLong(args[3]) : DEFAULT_SEED);
+
+        long startms = System.currentTimeMillis();
+        try {
+            long bytes = generator.writeText(Path.of(args[0]));
+            System.out.printf("Wrote %d sheets, %d cells, %d bytes to %s in %d ms\n", generator.sheetCount(),
+                    generator.cellCount(), bytes, args[0], System.currentTimeMillis() - startms);
+        }
+        catch (IOException exception) {
+            // Print an error message if the file cannot be written.
+            System.out.println(exception.getMessage());
+        }
+    }
+
+    public int sheetCount() {
+        return rows.length;
+    }
+
+    public int rows(int iceSheet) {
+        return rows[iceSheet];
+    }
+
+    public int columns(int iceSheet) {
+        return columns[iceSheet];
+    }
+
+    /**
+     * Returns the number of cells of all the sheets.
+     *
+     * @return The total number of cells.
+     */
+    public long cellCount() {
+        long cells = 0;
+        for (int iceSheet = 0; iceSheet < rows.length; iceSheet++) {
+            cells += (long) rows[iceSheet] * columns[iceSheet];
+        }
+        return cells;
+    }
+
+    /**
+     * Fills the cells of one sheet. Every sheet has its own random sequence, so a sheet is the
+     * same no matter which sheets were generated before it.
+     *
+     * @param iceSheet The sheet number.
+     * @param cells Array receiving the row-major cells, at least rows * columns long.
+     */
+    public void fillSheet(int iceSheet, int[] cells) {
+        Random random = new Random(seed * 31 + iceSheet + 1);
+        int sheetCells = rows[iceSheet] * columns[iceSheet];
+        for (int cell = 0; cell < sheetCells; cell++) {
+            cells[cell] = random.nextDouble() < weakSpotDensity
+                    ? WEAK_SPOT_VALUES[random.nextInt(WEAK_SPOT_VALUES.length)]
+                    : 201 + random.nextInt(799);
+        }
+    }
+
+    /**
+     * Generates every sheet into a new heap store.
+     *
+     * @return A store with the generated sheets.
+     */
+    public IceSheetStore generateStore() {
+        IceSheetStore dataStore = new IceSheetStore(sheetCount(), false);
+        for (int iceSheet = 0; iceSheet < sheetCount(); iceSheet++) {
+            int[] cells = new int[Math.multiplyExact(rows[iceSheet], columns[iceSheet])];
+            fillSheet(iceSheet, cells);
+            dataStore.putSheet(iceSheet, rows[iceSheet], columns[iceSheet], cells);
+        }
+        return dataStore;
+    }
+
+    /**
+     * Writes the sheets to a text file, one sheet at a time.
+     *
+     * @param textFilePath The path of the text file to write.
+     * @return The number of bytes written.
+     * @throws IOException If the file cannot be written.
+     */
+    public long writeText(Path textFilePath) throws IOException {
+        try (FileChannel output = FileChannel.open(textFilePath, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES);
+            long written = 0;
+
+            written += putLine(output, buffer, sheetCount() + "\n");
+            int[] cells = new int[0];
+            for (int iceSheet = 0; iceSheet < sheetCount(); iceSheet++) {
+                written += putLine(output, buffer, rows[iceSheet] + " " + columns[iceSheet] + "\n");
+
+                int sheetCells = rows[iceSheet] * columns[iceSheet];
+                if (cells.length < sheetCells) {
+                    cells = new int[sheetCells];
+                }
+                fillSheet(iceSheet, cells);
+
+                // Write each row as values separated by spaces, with a space before the newline.
+                for (int cell = 0; cell < sheetCells; cell++) {
+                    if (buffer.remaining() < 16) {
+                        written += flush(output, buffer);
+                    }
+                    putNumber(buffer, cells[cell]);
+                    buffer.put((byte) ' ');
+                    if ((cell + 1) % columns[iceSheet] == 0) {
+                        buffer.put((byte) '\n');
+                    }
+                }
+            }
+            written += flush(output, buffer);
+            return written;
+        }
+    }
+
+    /**
+     * Puts a line of text into the buffer, flushing it first when it is nearly full.
+     */
+    private static long putLine(FileChannel output, ByteBuffer buffer, String line) throws IOException {
+        long flushed = buffer.remaining() < line.length() ? flush(output, buffer) : 0;
+        for (int index = 0; index < line.length(); index++) {
+            buffer.put((byte) line.charAt(index));
+        }
+        return flushed;
+    }
+
+    /**
+     * Puts the decimal digits of a non-negative number into the buffer.
+     */
+    private static void putNumber(ByteBuffer buffer, int value) {
+        int divisor = 1;
+        while (value / divisor >= 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            buffer.put((byte) ('0' + value / divisor % 10));
+        }
+    }
+
+    /**
+     * Writes everything in the buffer to the channel and clears the buffer.
+     */
+    private static long flush(FileChannel output, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        long bytes = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            output.write(buffer);
+        }
+        buffer.clear();
+        return bytes;
+    }
+}
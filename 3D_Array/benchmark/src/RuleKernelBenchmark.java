@@ -0,0 +1,113 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * The RuleKernelBenchmark class measures the kernels compiled from IceDetectionRules against the
+ * built-in kernels with the original, hard-coded rules, on the same synthetic sheets from IceSheetGenerator.
+ * The compiled default rules must find exactly what the BITSET kernel finds, and custom rules
+ * should run as fast as the default ones (rules that find many more cracks spend longer adding them).
+ * Each kernel is measured in its own JVM after a warm-up.
+ *
+ * Usage (from 3D_Array):
+ *     javac -d out src/*.java && javac -d out -cp out benchmark/src/*.java
+ *     java -cp out RuleKernelBenchmark [sheets] [rows] [columns] [seed]
+ * Created on October 17, 2026
+ * @author Maharshi Patel
+ */
+public class RuleKernelBenchmark {
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int sheets = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int rows = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int columns = args.length > 2 ? Integer.parseInt(args[2]) : 2000;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 42;
+
+        // Measure a single kernel when started by the loop below.
+        if (args.length > 4) {
+            IceSheetStore dataStore = new IceSheetGenerator(seed, sheets, rows, rows, columns, columns, IceSheetGenerator.DEFAULT_DENSITY).generateStore();
+            measure(args[4], kernel(args[4]), dataStore, (long) sheets * rows * columns);
+            return;
+        }
+
+        System.out.printf("%d sheets of %d x %d cells, seed %d\n\n", sheets, rows, columns, seed);
+        IceSheetStore dataStore = new IceSheetGenerator(seed, sheets, rows, rows, columns, columns, IceSheetGenerator.DEFAULT_DENSITY).generateStore();
+        if (!sameResults(IceKernelBackend.BITSET.analyze(dataStore), IceDetectionRules.DEFAULT.compile().analyze(dataStore))) {
+            System.out.println("The compiled default rules do not match the BITSET kernel");
+            return;
+        }
+
+        // Every kernel runs in a fresh JVM, so the profile of one kernel does not slow down the next.
+        String[] kernels = {"FUSED", "BITSET", IceDetectionRules.DEFAULT.toString(),
+                "connectivity=4", "maximum=400,weak=25,crack=6,connectivity=8"};
+        for (String name : kernels) {
+            Process process = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                    "-cp", System.getProperty("java.class.path"), "RuleKernelBenchmark",
+                    String.valueOf(sheets), String.valueOf(rows), String.valueOf(columns), String.valueOf(seed), name)
+                    .inheritIO()
+                    .start();
+            process.waitFor();
+        }
+    }
+
+    /**
+     * Returns the built-in kernel with the given name, or the kernel compiled from the given rules.
+     */
+    private static IceKernel kernel(String name) {
+        if (name.contains("=")) {
+            return IceDetectionRules.parse(name).compile();
+        }
+        return IceKernelBackend.valueOf(name);
+    }
+
+    /**
+     * Runs a kernel over the store several times and prints its median time and throughput.
+     */
+    private static void measure(String name, IceKernel kernel, IceSheetStore dataStore, long cells) {
+        long cracks = 0;
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            cracks += kernel.analyze(dataStore).getCrackCount();
+        }
+
+        long[] nanos = new long[MEASURED_ROUNDS];
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            long start = System.nanoTime();
+            cracks += kernel.analyze(dataStore).getCrackCount();
+            nanos[round] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        long median = nanos[MEASURED_ROUNDS / 2];
+
+        // The crack total keeps the results alive so the analysis cannot be optimized away.
+        System.out.printf("%-45s %8.2f ms %8.1f Mcells/s %10d cracks\n", name, median / 1e6, cells * 1e3 / median,
+                cracks / (WARMUP_ROUNDS + MEASURED_ROUNDS));
+    }
+
+    /**
+     * Returns true if two reports have the same weak spot counts and cracks.
+     */
+    private static boolean sameResults(CrackReport expected, CrackReport actual) {
+        WeakSpotReport expectedWeakSpots = expected.getWeakSpots();
+        WeakSpotReport actualWeakSpots = actual.getWeakSpots();
+        for (int iceSheet = 0; iceSheet < expectedWeakSpots.getSheetCount(); iceSheet++) {
+            if (expectedWeakSpots.getWeakSpots(iceSheet) != actualWeakSpots.getWeakSpots(iceSheet)) {
+                return false;
+            }
+        }
+        LocationList expectedCracks = expected.getCracks();
+        LocationList actualCracks = actual.getCracks();
+        if (expectedCracks.size() != actualCracks.size()) {
+            return false;
+        }
+        for (int crack = 0; crack < expectedCracks.size(); crack++) {
+            if (expectedCracks.sheet(crack) != actualCracks.sheet(crack) || expectedCracks.row(crack) != actualCracks.row(crack)
+                    || expectedCracks.column(crack) != actualCracks.column(crack)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
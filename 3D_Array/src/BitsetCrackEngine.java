@@ -0,0 +1,239 @@
+import java.util.Arrays;
+
+/**
+ * The BitsetCrackEngine class finds weak spots and cracks with bit operations on whole rows.
+ * Each row of a sheet is turned into two bitmasks of longs, one bit per column: the weak spot
+ * mask (value less than or equal to 200 and divisible by 50) and the divisible-by-ten mask.
+ * The eight-neighbourhood of every cell is the divisible-by-ten masks of the rows above and below,
+ * shifted one column left and right and ORed together, plus the left and right shifts of the
+ * cell's own row. ANDing that with the weak spot mask tests 64 cells per instruction.
+ * The mask arrays have an empty word on each side, so the shifts need no edge cases.
+ * Its results are identical to FusedIceKernel and IceDataAnalysis.cracks, and it is selected
+ * with IceKernelBackend.BITSET. The masks of a row are built by a RowMasks, which evaluates the
+ * predicates one cell at a time by default, or a whole vector of cells at a time (VectorCrackEngine).
+ * Sheets that are not kept in an IceSheetStore, such as CompressedSheetStore, hand their rows to the
+ * engine through a RowSource instead.
+ * Created on October 17, 2026
+ * @author Maharshi Patel
+ */
+public class BitsetCrackEngine {
+
+    /**
+     * The RowMasks interface builds the divisible-by-ten and weak spot masks of one row.
+     * Bit j of word w + 1 of a mask stands for column 64 * w + j; the padding words are left alone.
+     */
+    public interface RowMasks {
+
+        /**
+         * Builds the masks of the row of cells starting at rowStart.
+         *
+         * @param cells The cells holding the row.
+         * @param rowStart The index of the row's first cell.
+         * @param columns The number of cells in the row.
+         * @param tenMask Mask receiving the cells divisible by ten.
+         * @param weakMask Mask receiving the weak spots.
+         */
+        void build(int[] cells, int rowStart, int columns, long[] tenMask, long[] weakMask);
+    }
+
+    /**
+     * The RowSource interface builds the divisible-by-ten and weak spot masks of any row of a sheet,
+     * wherever its cells are kept. It must set every word of the masks from 1 to the number of words
+     * of the row, and leave the padding words alone.
+     */
+    public interface RowSource {
+
+        /**
+         * Builds the masks of one row of the sheet.
+         *
+         * @param row The row to read.
+         * @param tenMask Mask receiving the cells divisible by ten.
+         * @param weakMask Mask receiving the weak spots.
+         */
+        void readRow(int row, long[] tenMask, long[] weakMask);
+    }
+
+    // Evaluates the predicates one cell at a time.
+    public static final RowMasks SCALAR_MASKS = BitsetCrackEngine::buildMasks;
+
+    /**
+     * Finds the weak spots and cracks in a band of rows of one ice sheet.
+     * The rows just outside the band are read as neighbours, as in FusedIceKernel.scanRows.
+     * The masks are built one cell at a time.
+     *
+     * @param dataStore The store containing ice sheet data.
+     * @param iceSheet The sheet number.
+     * @param fromRow The first row of the band (inclusive).
+     * @param toRow The last row of the band (exclusive).
+     * @param cracks List receiving the cracks found in the band, in row and column order.
+     * @return The number of weak spots in the band.
+     */
+    public static int scanRows(IceSheetStore dataStore, int iceSheet, int fromRow, int toRow, LocationList cracks) {
+        return scanRows(dataStore, iceSheet, fromRow, toRow, cracks, SCALAR_MASKS);
+    }
+
+    /**
+     * Finds the weak spots and cracks in a band of rows of one ice sheet, building the masks of
+     * each row with the given RowMasks.
+     *
+     * @param dataStore The store containing ice sheet data.
+     * @param iceSheet The sheet number.
+     * @param fromRow The first row of the band (inclusive).
+     * @param toRow The last row of the band (exclusive).
+     * @param cracks List receiving the cracks found in the band, in row and column order.
+     * @param rowMasks The builder of the row masks.
+     * @return The number of weak spots in the band.
+     */
+    public static int scanRows(IceSheetStore dataStore, int iceSheet, int fromRow, int toRow, LocationList cracks, RowMasks rowMasks) {
+        return scanRows(dataStore, iceSheet, fromRow, toRow, cracks, rowMasks, true);
+    }
+
+    /**
+     * Finds the weak spots and cracks in a band of rows of one ice sheet, building the masks of
+     * each row with the given RowMasks, and with or without the diagonal neighbours.
+     *
+     * @param dataStore The store containing ice sheet data.
+     * @param iceSheet The sheet number.
+     * @param fromRow The first row of the band (inclusive).
+     * @param toRow The last row of the band (exclusive).
+     * @param cracks List receiving the cracks found in the band, in row and column order.
+     * @param rowMasks The builder of the row masks.
+     * @param diagonals True for the eight neighbours of a cell, false for the four beside, above and below it.
+     * @return The number of weak spots in the band.
+     */
+    public static int scanRows(IceSheetStore dataStore, int iceSheet, int fromRow, int toRow, LocationList cracks,
+                               RowMasks rowMasks, boolean diagonals) {
+        int[] rowBuffer = new int[dataStore.columns(iceSheet)];
+        RowSource rowSource = (row, tenMask, weakMask) -> readRow(dataStore, iceSheet, row, rowBuffer, rowMasks, tenMask, weakMask);
+        return scanRows(iceSheet, dataStore.rows(iceSheet), dataStore.columns(iceSheet), rowSource, fromRow, toRow, cracks, diagonals);
+    }
+
+    /**
+     * Finds the weak spots and cracks in a band of rows of one ice sheet whose row masks come from a RowSource.
+     *
+     * @param iceSheet The sheet number.
+     * @param rows The number of rows of the sheet.
+     * @param columns The number of columns of the sheet.
+     * @param rowSource The builder of the masks of each row.
+     * @param fromRow The first row of the band (inclusive).
+     * @param toRow The last row of the band (exclusive).
+     * @param cracks List receiving the cracks found in the band, in row and column order.
+     * @param diagonals True for the eight neighbours of a cell, false for the four beside, above and below it.
+     * @return The number of weak spots in the band.
+     */
+    public static int scanRows(int iceSheet, int rows, int columns, RowSource rowSource, int fromRow, int toRow,
+                               LocationList cracks, boolean diagonals) {
+        int words = (columns + 63) >>> 6;
+
+        // Sheets with a single row or column never report cracks, as in IceDataAnalysis.cracks.
+        boolean crackable = rows > 1 && columns > 1;
+
+        // Divisible-by-ten masks of the previous, current and next rows, and weak spot masks of the
+        // current and next rows, each with an empty padding word at index 0 and at index words + 1.
+        long[] previousTen = new long[words + 2];
+        long[] currentTen = new long[words + 2];
+        long[] nextTen = new long[words + 2];
+        long[] currentWeak = new long[words + 2];
+        long[] nextWeak = new long[words + 2];
+
+        if (fromRow > 0) {
+            rowSource.readRow(fromRow - 1, previousTen, nextWeak);
+        }
+        if (fromRow < toRow) {
+            rowSource.readRow(fromRow, currentTen, currentWeak);
+        }
+
+        int weakSpots = 0;
+        for (int row = fromRow; row < toRow; row++) {
+            // Bring the next row's masks in, or empty masks below the last row.
+            if (row + 1 < rows) {
+                rowSource.readRow(row + 1, nextTen, nextWeak);
+            }
+            else {
+                Arrays.fill(nextTen, 0L);
+                Arrays.fill(nextWeak, 0L);
+            }
+
+            for (int word = 1; word <= words; word++) {
+                long weak = currentWeak[word];
+                if (weak == 0) {
+                    continue;
+                }
+                weakSpots += Long.bitCount(weak);
+
+                if (crackable) {
+                    // Neighbours divisible by ten: the rows above and below (dilated when the diagonals
+                    // count), and the left and right cells of the current row (the cell itself is left out).
+                    long neighbours = diagonals
+                            ? dilate(previousTen, word) | dilate(nextTen, word)
+                            : previousTen[word] | nextTen[word];
+                    neighbours |= (currentTen[word] << 1) | (currentTen[word - 1] >>> 63)
+                            | (currentTen[word] >>> 1) | (currentTen[word + 1] << 63);
+
+                    // Add the cracks of this word in column order.
+                    long cracked = weak & neighbours;
+                    int firstColumn = (word - 1) << 6;
+                    while (cracked != 0) {
+                        cracks.add(iceSheet, row, firstColumn + Long.numberOfTrailingZeros(cracked));
+                        cracked &= cracked - 1;
+                    }
+                }
+            }
+
+            // Rotate the masks down by one row.
+            long[] recycled = previousTen;
+            previousTen = currentTen;
+            currentTen = nextTen;
+            nextTen = recycled;
+
+            recycled = currentWeak;
+            currentWeak = nextWeak;
+            nextWeak = recycled;
+        }
+        return weakSpots;
+    }
+
+    /**
+     * Returns one word of a mask ORed with its left and right shifts (a three cell wide dilation).
+     */
+    private static long dilate(long[] mask, int word) {
+        long center = mask[word];
+        return center | (center << 1) | (mask[word - 1] >>> 63) | (center >>> 1) | (mask[word + 1] << 63);
+    }
+
+    /**
+     * Reads one row of a sheet and builds its divisible-by-ten and weak spot masks.
+     */
+    private static void readRow(IceSheetStore dataStore, int iceSheet, int row, int[] rowBuffer, RowMasks rowMasks, long[] tenMask, long[] weakMask) {
+        int columns = rowBuffer.length;
+        int[] cells = dataStore.heapCells(iceSheet);
+        int rowStart = row * columns;
+
+        // Read straight from the heap block, or copy the row out of the off-heap buffer.
+        if (cells == null) {
+            dataStore.copyRow(iceSheet, row, rowBuffer);
+            cells = rowBuffer;
+            rowStart = 0;
+        }
+        rowMasks.build(cells, rowStart, columns, tenMask, weakMask);
+    }
+
+    /**
+     * Builds the masks of a row one cell at a time.
+     */
+    private static void buildMasks(int[] cells, int rowStart, int columns, long[] tenMask, long[] weakMask) {
+        for (int word = 1, firstColumn = 0; firstColumn < columns; word++, firstColumn += 64) {
+            int lastColumn = Math.min(columns, firstColumn + 64);
+            long ten = 0;
+            long weak = 0;
+            for (int column = firstColumn; column < lastColumn; column++) {
+                int value = cells[rowStart + column];
+                long bit = 1L << (column - firstColumn);
+                ten |= (value % 10 == 0) ? bit : 0L;
+                weak |= (value <= 200 & value % 50 == 0) ? bit : 0L;
+            }
+            tenMask[word] = ten;
+            weakMask[word] = weak;
+        }
+    }
+}
@@ -0,0 +1,409 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * The CompressedSheetStore class holds ice sheets in a compressed form that is analyzed without
+ * decoding the cells back into ints. Ice sheets use few distinct values, so every sheet with at most
+ * MAXIMUM_DICTIONARY distinct values keeps a sorted dictionary of them, and each cell is bit-packed as
+ * the index of its value in just enough bits (10 bits for a sheet of 1000 distinct values, instead of 32).
+ * A sheet with more distinct values is bit-packed as the offset of each value from the smallest one instead.
+ * The cells of a sheet are packed in row-major order into one long[], and a cell may span two longs.
+ *
+ * The analysis evaluates the weak spot and crack predicates once per dictionary entry, not once per cell,
+ * and then builds the row masks of BitsetCrackEngine straight from the packed indexes, so the results are
+ * identical to the other kernels. A text file is compressed one sheet at a time while it is read, so only
+ * the largest sheet is ever held uncompressed.
+ * Created on October 17, 2026
+ * @author Maharshi Patel
+ */
+public class CompressedSheetStore {
+
+    // Largest dictionary of a sheet, sheets with more distinct values are packed as offsets.
+    public static final int MAXIMUM_DICTIONARY = 1 << 16;
+
+    // Bit 0 of a dictionary entry's flags: the value is divisible by the crack divisor; bit 1: it is a weak spot.
+    private static final byte TEN_FLAG = 1;
+    private static final byte WEAK_FLAG = 2;
+
+    private final int[] rows;
+    private final int[] columns;
+    private final int[] bitsPerCell;
+
+    // Sorted distinct values of every sheet, or null when the sheet is packed as offsets from its base.
+    private final int[][] dictionaries;
+    private final int[] bases;
+    private final long[][] packedCells;
+
+    /**
+     * Creates an empty store for the given number of ice sheets.
+     * Every sheet must be added with putSheet before it is read.
+     *
+     * @param iceSheets The number of ice sheets in the store.
+     */
+    public CompressedSheetStore(int iceSheets) {
+        rows = new int[iceSheets];
+        columns = new int[iceSheets];
+        bitsPerCell = new int[iceSheets];
+        dictionaries = new int[iceSheets][];
+        bases = new int[iceSheets];
+        packedCells = new long[iceSheets][];
+    }
+
+    /**
+     * Compresses every sheet of a store.
+     *
+     * @param dataStore The store containing ice sheet data.
+     * @return A compressed store with the same sheets.
+     */
+    public static CompressedSheetStore compress(IceSheetStore dataStore) {
+        CompressedSheetStore store = new CompressedSheetStore(dataStore.sheetCount());
+        for (int iceSheet = 0; iceSheet < dataStore.sheetCount(); iceSheet++) {
+            int[] cells = dataStore.heapCells(iceSheet);
+            if (cells == null) {
+                int columns = dataStore.columns(iceSheet);
+                cells = new int[Math.multiplyExact(dataStore.rows(iceSheet), columns)];
+                for (int row = 0; row < dataStore.rows(iceSheet); row++) {
+                    dataStore.copyRow(iceSheet, row, cells, row * columns);
+                }
+            }
+            store.putSheet(iceSheet, dataStore.rows(iceSheet), dataStore.columns(iceSheet), cells);
+        }
+        return store;
+    }
+
+    /**
+     * Reads a text or binary ice sheet file into a compressed store.
+     * A text file is read one sheet at a time, and each sheet is compressed before the next is read.
+     *
+     * @param filePath The path to the ice sheet file.
+     * @return A compressed store with the sheets of the file, or null if an error occurs.
+     */
+    public static CompressedSheetStore load(String filePath) {
+        if (IceBinaryFormat.isBinary(filePath)) {
+            IceSheetStore dataStore = IceBinaryFormat.open(filePath);
+            return dataStore == null ? null : compress(dataStore);
+        }
+        try (IceDataTokenizer tokenizer = new IceDataTokenizer(Path.of(filePath))) {
+            CompressedSheetStore store = new CompressedSheetStore(tokenizer.nextInt());
+            for (int iceSheet = 0; iceSheet < store.sheetCount(); iceSheet++) {
+                int sheetRows = tokenizer.nextInt();
+                int sheetColumns = tokenizer.nextInt();
+                int[] cells = new int[Math.multiplyExact(sheetRows, sheetColumns)];
+                for (int cell = 0; cell < cells.length; cell++) {
+                    cells[cell] = tokenizer.nextInt();
+                }
+                store.putSheet(iceSheet, sheetRows, sheetColumns, cells);
+            }
+            return store;
+        }
+        catch (IOException exception) {
+            // Print an error message if the file is missing or malformed.
+            System.out.println(exception.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Compresses a block of cells and stores it as the given ice sheet.
+     *
+     * @param iceSheet The sheet number.
+     * @param sheetRows The number of rows of the sheet.
+     * @param sheetColumns The number of columns of the sheet.
+     * @param cells The row-major cells of the sheet, they are not kept.
+     */
+    public void putSheet(int iceSheet, int sheetRows, int sheetColumns, int[] cells) {
+        if ((long) sheetRows * sheetColumns != cells.length) {
+            throw new IllegalArgumentException("Sheet of " + sheetRows + "x" + sheetColumns + " cannot hold " + cells.length + " cells");
+        }
+        int[] dictionary = distinctValues(cells);
+        int bits;
+        int[] codes = null;
+        if (dictionary != null) {
+            bits = bitsFor(dictionary.length - 1L);
+            codes = codeTable(dictionary);
+        }
+        else {
+            int minimum = Integer.MAX_VALUE;
+            int maximum = Integer.MIN_VALUE;
+            for (int value : cells) {
+                minimum = Math.min(minimum, value);
+                maximum = Math.max(maximum, value);
+            }
+            bases[iceSheet] = minimum;
+            bits = bitsFor((long) maximum - minimum);
+        }
+
+        // Pack every cell as its dictionary index, or as its offset from the smallest value.
+        long[] packed = new long[(int) (((long) cells.length * bits + 63) >>> 6)];
+        long bitIndex = 0;
+        for (int value : cells) {
+            long code = dictionary != null ? lookup(codes, dictionary, value) : ((long) value - bases[iceSheet]);
+            int word = (int) (bitIndex >>> 6);
+            int offset = (int) (bitIndex & 63);
+            packed[word] |= code << offset;
+            if (offset + bits > 64) {
+                packed[word + 1] |= code >>> (64 - offset);
+            }
+            bitIndex += bits;
+        }
+
+        rows[iceSheet] = sheetRows;
+        columns[iceSheet] = sheetColumns;
+        bitsPerCell[iceSheet] = bits;
+        dictionaries[iceSheet] = dictionary;
+        packedCells[iceSheet] = packed;
+    }
+
+    /**
+     * Returns the number of ice sheets in the store.
+     *
+     * @return The number of ice sheets.
+     */
+    public int sheetCount() {
+        return rows.length;
+    }
+
+    /**
+     * Returns the number of rows of an ice sheet.
+     *
+     * @param iceSheet The sheet number.
+     * @return The number of rows of the sheet.
+     */
+    public int rows(int iceSheet) {
+        return rows[iceSheet];
+    }
+
+    /**
+     * Returns the number of columns of an ice sheet.
+     *
+     * @param iceSheet The sheet number.
+     * @return The number of columns of the sheet.
+     */
+    public int columns(int iceSheet) {
+        return columns[iceSheet];
+    }
+
+    /**
+     * Returns the number of bits each cell of a sheet is packed in.
+     *
+     * @param iceSheet The sheet number.
+     * @return The bits per cell.
+     */
+    public int bitsPerCell(int iceSheet) {
+        return bitsPerCell[iceSheet];
+    }
+
+    /**
+     * Returns the number of distinct values of a sheet.
+     *
+     * @param iceSheet The sheet number.
+     * @return The size of the sheet's dictionary, or -1 if the sheet is packed as offsets.
+     */
+    public int dictionarySize(int iceSheet) {
+        return dictionaries[iceSheet] == null ? -1 : dictionaries[iceSheet].length;
+    }
+
+    /**
+     * Returns the number of cells of all the sheets in the store.
+     *
+     * @return The total number of cells.
+     */
+    public long cellCount() {
+        long cells = 0;
+        for (int iceSheet = 0; iceSheet < rows.length; iceSheet++) {
+            cells += (long) rows[iceSheet] * columns[iceSheet];
+        }
+        return cells;
+    }
+
+    /**
+     * Returns the number of bytes taken by the packed cells and the dictionaries.
+     *
+     * @return The compressed size of the store.
+     */
+    public long compressedBytes() {
+        long bytes = 0;
+        for (int iceSheet = 0; iceSheet < rows.length; iceSheet++) {
+            bytes += (long) packedCells[iceSheet].length * Long.BYTES;
+            bytes += dictionaries[iceSheet] == null ? 0 : (long) dictionaries[iceSheet].length * Integer.BYTES;
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns the value of a cell.
+     *
+     * @param iceSheet The sheet number.
+     * @param row The row of the cell.
+     * @param column The column of the cell.
+     * @return The value stored in the cell.
+     */
+    public int get(int iceSheet, int row, int column) {
+        long code = code(packedCells[iceSheet], ((long) row * columns[iceSheet] + column) * bitsPerCell[iceSheet], bitsPerCell[iceSheet]);
+        return dictionaries[iceSheet] != null ? dictionaries[iceSheet][(int) code] : (int) (bases[iceSheet] + code);
+    }
+
+    /**
+     * Finds the weak spots and cracks of every ice sheet in the store.
+     * The weak spot locations themselves are not collected.
+     *
+     * @param rules The rules that decide the weak spots and cracks.
+     * @return The weak spot counts and the cracks of all sheets, in sheet, row and column order.
+     */
+    public CrackReport analyze(IceDetectionRules rules) {
+        int[] weakSpotsPerSheet = new int[sheetCount()];
+        LocationList cracks = new LocationList();
+        for (int iceSheet = 0; iceSheet < sheetCount(); iceSheet++) {
+            weakSpotsPerSheet[iceSheet] = scanRows(iceSheet, 0, rows[iceSheet], cracks, rules);
+        }
+        return new CrackReport(new WeakSpotReport(weakSpotsPerSheet, null), cracks);
+    }
+
+    /**
+     * Finds the weak spots and cracks in a band of rows of one ice sheet.
+     * The rows just outside the band are read as neighbours.
+     *
+     * @param iceSheet The sheet number.
+     * @param fromRow The first row of the band (inclusive).
+     * @param toRow The last row of the band (exclusive).
+     * @param cracks List receiving the cracks found in the band, in row and column order.
+     * @param rules The rules that decide the weak spots and cracks.
+     * @return The number of weak spots in the band.
+     */
+    public int scanRows(int iceSheet, int fromRow, int toRow, LocationList cracks, IceDetectionRules rules) {
+        int sheetColumns = columns[iceSheet];
+        int bits = bitsPerCell[iceSheet];
+        long[] packed = packedCells[iceSheet];
+        int[] dictionary = dictionaries[iceSheet];
+        int base = bases[iceSheet];
+
+        // Evaluate the predicates once per dictionary entry.
+        byte[] flags = null;
+        if (dictionary != null) {
+            flags = new byte[dictionary.length];
+            for (int entry = 0; entry < dictionary.length; entry++) {
+                flags[entry] = (byte) ((rules.isCrackNeighbour(dictionary[entry]) ? TEN_FLAG : 0)
+                        | (rules.isWeakSpot(dictionary[entry]) ? WEAK_FLAG : 0));
+            }
+        }
+        byte[] entryFlags = flags;
+
+        BitsetCrackEngine.RowSource rowSource = (row, tenMask, weakMask) -> {
+            long bitIndex = (long) row * sheetColumns * bits;
+            for (int word = 1, firstColumn = 0; firstColumn < sheetColumns; word++, firstColumn += 64) {
+                int lastColumn = Math.min(sheetColumns, firstColumn + 64);
+                long ten = 0;
+                long weak = 0;
+                for (int column = firstColumn; column < lastColumn; column++, bitIndex += bits) {
+                    long code = code(packed, bitIndex, bits);
+                    long bit = 1L << (column - firstColumn);
+                    if (entryFlags != null) {
+                        byte cellFlags = entryFlags[(int) code];
+                        ten |= (cellFlags & TEN_FLAG) != 0 ? bit : 0L;
+                        weak |= (cellFlags & WEAK_FLAG) != 0 ? bit : 0L;
+                    }
+                    else {
+                        int value = (int) (base + code);
+                        ten |= rules.isCrackNeighbour(value) ? bit : 0L;
+                        weak |= rules.isWeakSpot(value) ? bit : 0L;
+                    }
+                }
+                tenMask[word] = ten;
+                weakMask[word] = weak;
+            }
+        };
+        return BitsetCrackEngine.scanRows(iceSheet, rows[iceSheet], sheetColumns, rowSource, fromRow, toRow, cracks,
+                rules.getConnectivity() == 8);
+    }
+
+    /**
+     * Reads the packed code starting at a bit index.
+     */
+    private static long code(long[] packed, long bitIndex, int bits) {
+        int word = (int) (bitIndex >>> 6);
+        int offset = (int) (bitIndex & 63);
+        long code = packed[word] >>> offset;
+        if (offset + bits > 64) {
+            code |= packed[word + 1] << (64 - offset);
+        }
+        return code & (-1L >>> (64 - bits));
+    }
+
+    /**
+     * Returns the number of bits needed for codes up to the given largest code, at least 1.
+     */
+    private static int bitsFor(long largestCode) {
+        return Math.max(1, 64 - Long.numberOfLeadingZeros(largestCode));
+    }
+
+    /**
+     * Returns the sorted distinct values of the cells, or null if there are more than MAXIMUM_DICTIONARY.
+     */
+    private static int[] distinctValues(int[] cells) {
+        int[] slots = new int[hashSlots(Math.min(cells.length, MAXIMUM_DICTIONARY))];
+        boolean[] used = new boolean[slots.length];
+        int distinct = 0;
+        for (int value : cells) {
+            int slot = hash(value, slots.length);
+            while (used[slot] && slots[slot] != value) {
+                slot = (slot + 1) & (slots.length - 1);
+            }
+            if (!used[slot]) {
+                if (distinct == MAXIMUM_DICTIONARY) {
+                    return null;
+                }
+                used[slot] = true;
+                slots[slot] = value;
+                distinct++;
+            }
+        }
+
+        int[] dictionary = new int[distinct];
+        for (int slot = 0, entry = 0; slot < slots.length; slot++) {
+            if (used[slot]) {
+                dictionary[entry++] = slots[slot];
+            }
+        }
+        Arrays.sort(dictionary);
+        return dictionary;
+    }
+
+    /**
+     * Builds a hash table from each dictionary value to its index, stored as index + 1 so 0 marks an empty slot.
+     * The value of a slot is read back from the dictionary.
+     */
+    private static int[] codeTable(int[] dictionary) {
+        int[] codes = new int[hashSlots(dictionary.length)];
+        for (int entry = 0; entry < dictionary.length; entry++) {
+            int slot = hash(dictionary[entry], codes.length);
+            while (codes[slot] != 0) {
+                slot = (slot + 1) & (codes.length - 1);
+            }
+            codes[slot] = entry + 1;
+        }
+        return codes;
+    }
+
+    /**
+     * Returns the dictionary index of a value of the dictionary.
+     */
+    private static int lookup(int[] codes, int[] dictionary, int value) {
+        int slot = hash(value, codes.length);
+        while (dictionary[codes[slot] - 1] != value) {
+            slot = (slot + 1) & (codes.length - 1);
+        }
+        return codes[slot] - 1;
+    }
+
+    /**
+     * Returns the size of a hash table for the given number of values, a power of two at least twice as large.
+     */
+    private static int hashSlots(int values) {
+        return Integer.highestOneBit(Math.max(1, values) * 2 - 1) << 1;
+    }
+
+    private static int hash(int value, int slots) {
+        return (value * 0x9E3779B9) >>> (32 - Integer.numberOfTrailingZeros(slots));
+    }
+}
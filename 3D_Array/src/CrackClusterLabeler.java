@@ -0,0 +1,249 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The CrackClusterLabeler class groups the cracks of an ice sheet into clusters of touching cells,
+ * optionally counting weak spots as part of a cluster too. Two cells touch when one is a neighbour
+ * of the other under the connectivity of the detection rules (8 or 4 neighbours).
+ *
+ * The clusters are found with a union-find over the cells of the sheet. The sheet is split into bands
+ * of rows as in ParallelIceAnalysis, and the bands are labeled in parallel, each band joining only the
+ * cells inside it. The bands are then merged by joining the cells on both sides of every band boundary.
+ * The root of every set is its smallest cell, so every cell's parent comes before it in row-major order,
+ * and one final pass in row-major order turns the parents into cluster numbers in place and adds up the
+ * size, bounding box and centroid of each cluster.
+ * Created on October 17, 2026
+ * @author Maharshi Patel
+ */
+public class CrackClusterLabeler {
+
+    private final ForkJoinPool pool;
+    private final int bandCells;
+    private final IceDetectionRules rules;
+    private final IceKernel kernel;
+
+    /**
+     * Creates a labeler using the given number of worker threads and the original detection rules.
+     *
+     * @param parallelism The number of worker threads.
+     */
+    public CrackClusterLabeler(int parallelism) {
+        this(new ForkJoinPool(parallelism), ParallelIceAnalysis.DEFAULT_BAND_CELLS, IceDetectionRules.DEFAULT);
+    }
+
+    /**
+     * Creates a labeler running on an existing pool.
+     *
+     * @param pool The pool running the bands.
+     * @param bandCells The number of cells above which a sheet is split into bands of rows.
+     * @param rules The rules that decide the weak spots and cracks, and which cells touch.
+     */
+    public CrackClusterLabeler(ForkJoinPool pool, int bandCells, IceDetectionRules rules) {
+        if (bandCells < 1) {
+            throw new IllegalArgumentException("Band size must be at least one cell: " + bandCells);
+        }
+        this.pool = pool;
+        this.bandCells = bandCells;
+        this.rules = rules;
+        this.kernel = rules.compile();
+    }
+
+    /**
+     * Finds the crack clusters of every ice sheet in the store.
+     *
+     * @param dataStore The store containing ice sheet data.
+     * @param includeWeakSpots True to count weak spots that are not cracks as part of the clusters.
+     * @return The clusters of every sheet, in sheet order.
+     */
+    public CrackClusterReport[] labelAll(IceSheetStore dataStore, boolean includeWeakSpots) {
+        CrackClusterReport[] reports = new CrackClusterReport[dataStore.sheetCount()];
+        for (int iceSheet = 0; iceSheet < reports.length; iceSheet++) {
+            reports[iceSheet] = label(dataStore, iceSheet, includeWeakSpots);
+        }
+        return reports;
+    }
+
+    /**
+     * Finds the crack clusters of one ice sheet.
+     *
+     * @param dataStore The store containing ice sheet data.
+     * @param iceSheet The sheet number.
+     * @param includeWeakSpots True to count weak spots that are not cracks as part of the clusters.
+     * @return The clusters of the sheet.
+     */
+    public CrackClusterReport label(IceSheetStore dataStore, int iceSheet, boolean includeWeakSpots) {
+        int rows = dataStore.rows(iceSheet);
+        int columns = dataStore.columns(iceSheet);
+        int bandRows = Math.max(1, bandCells / Math.max(1, columns));
+        int bands = (rows + bandRows - 1) / bandRows;
+
+        // Parent of every cell in row-major order, -1 for cells outside any cluster.
+        int[] parents = new int[rows * columns];
+        BandTask allBands = new BandTask(dataStore, iceSheet, includeWeakSpots, parents, bandRows, 0, bands);
+        if (ForkJoinTask.getPool() == pool) {
+            allBands.invoke();
+        }
+        else {
+            pool.invoke(allBands);
+        }
+
+        // Join the cells across every band boundary, the first row of a band with the last row of the band above.
+        for (int fromRow = bandRows; fromRow < rows; fromRow += bandRows) {
+            joinRowAbove(parents, fromRow, columns);
+        }
+
+        // Number the clusters in row-major order. A parent always comes before its cell, so it already
+        // holds its cluster number when the cell is reached.
+        CrackClusterReport report = new CrackClusterReport(iceSheet, columns, parents);
+        for (int row = 0, cell = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++, cell++) {
+                int parent = parents[cell];
+                if (parent < 0) {
+                    continue;
+                }
+                int cluster = parent == cell ? report.addCluster(row, column) : parents[parent];
+                parents[cell] = cluster;
+                report.addCell(cluster, row, column);
+            }
+        }
+        return report;
+    }
+
+    /**
+     * Stops the worker threads of the pool.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Marks the members of a band of rows and joins each of them with the members to its left and above it
+     * inside the band.
+     */
+    private void labelBand(IceSheetStore dataStore, int iceSheet, boolean includeWeakSpots, int[] parents, int fromRow, int toRow) {
+        int columns = dataStore.columns(iceSheet);
+        Arrays.fill(parents, fromRow * columns, toRow * columns, -1);
+
+        // Every member starts as a set of its own.
+        LocationList cracks = new LocationList();
+        kernel.scanRows(dataStore, iceSheet, fromRow, toRow, cracks);
+        for (int crack = 0; crack < cracks.size(); crack++) {
+            int cell = cracks.row(crack) * columns + cracks.column(crack);
+            parents[cell] = cell;
+        }
+        if (includeWeakSpots) {
+            int[] rowCells = new int[columns];
+            for (int row = fromRow; row < toRow; row++) {
+                dataStore.copyRow(iceSheet, row, rowCells);
+                for (int column = 0; column < columns; column++) {
+                    if (rules.isWeakSpot(rowCells[column])) {
+                        parents[row * columns + column] = row * columns + column;
+                    }
+                }
+            }
+        }
+
+        for (int row = fromRow; row < toRow; row++) {
+            int rowStart = row * columns;
+            for (int column = 1; column < columns; column++) {
+                if (parents[rowStart + column] >= 0 && parents[rowStart + column - 1] >= 0) {
+                    union(parents, rowStart + column - 1, rowStart + column);
+                }
+            }
+            if (row > fromRow) {
+                joinRowAbove(parents, row, columns);
+            }
+        }
+    }
+
+    /**
+     * Joins the members of a row with the members of the row above that touch them.
+     */
+    private void joinRowAbove(int[] parents, int row, int columns) {
+        boolean diagonals = rules.getConnectivity() == 8;
+        int rowStart = row * columns;
+        int aboveStart = rowStart - columns;
+        for (int column = 0; column < columns; column++) {
+            if (parents[rowStart + column] < 0) {
+                continue;
+            }
+            if (parents[aboveStart + column] >= 0) {
+                union(parents, aboveStart + column, rowStart + column);
+            }
+            if (diagonals) {
+                if (column > 0 && parents[aboveStart + column - 1] >= 0) {
+                    union(parents, aboveStart + column - 1, rowStart + column);
+                }
+                if (column + 1 < columns && parents[aboveStart + column + 1] >= 0) {
+                    union(parents, aboveStart + column + 1, rowStart + column);
+                }
+            }
+        }
+    }
+
+    /**
+     * Joins the sets of two cells, the larger root is hung under the smaller one.
+     */
+    private static void union(int[] parents, int first, int second) {
+        int firstRoot = find(parents, first);
+        int secondRoot = find(parents, second);
+        if (firstRoot < secondRoot) {
+            parents[secondRoot] = firstRoot;
+        }
+        else if (secondRoot < firstRoot) {
+            parents[firstRoot] = secondRoot;
+        }
+    }
+
+    /**
+     * Returns the root of a cell's set, pointing every other cell on the way at its grandparent.
+     */
+    private static int find(int[] parents, int cell) {
+        while (parents[cell] != cell) {
+            parents[cell] = parents[parents[cell]];
+            cell = parents[cell];
+        }
+        return cell;
+    }
+
+    /**
+     * The BandTask class labels a range of bands, splitting the range in half until
+     * a single band is left, so idle workers can steal the other half.
+     */
+    @SuppressWarnings("serial")
+    private class BandTask extends RecursiveAction {
+        private final IceSheetStore dataStore;
+        private final int iceSheet;
+        private final boolean includeWeakSpots;
+        private final int[] parents;
+        private final int bandRows;
+        private final int from;
+        private final int to;
+
+        BandTask(IceSheetStore dataStore, int iceSheet, boolean includeWeakSpots, int[] parents, int bandRows, int from, int to) {
+            this.dataStore = dataStore;
+            this.iceSheet = iceSheet;
+            this.includeWeakSpots = includeWeakSpots;
+            this.parents = parents;
+            this.bandRows = bandRows;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new BandTask(dataStore, iceSheet, includeWeakSpots, parents, bandRows, from, middle),
+                        new BandTask(dataStore, iceSheet, includeWeakSpots, parents, bandRows, middle, to));
+                return;
+            }
+            if (from < to) {
+                int fromRow = from * bandRows;
+                labelBand(dataStore, iceSheet, includeWeakSpots, parents, fromRow, Math.min(dataStore.rows(iceSheet), fromRow + bandRows));
+            }
+        }
+    }
+}
@@ -0,0 +1,160 @@
+import java.util.Arrays;
+
+/**
+ * The CrackClusterReport class holds the crack clusters of one ice sheet: the contiguous regions
+ * of cracked cells (and weak spots, when they were included) found by CrackClusterLabeler.
+ * Clusters are numbered in the row-major order of their first cell. For every cluster the report
+ * keeps its size, its bounding box and the sums of its rows and columns, from which the centroid
+ * is computed, all in primitive arrays. The label of every cell is kept as well.
+ * Created on October 17, 2026
+ * @author Maharshi Patel
+ */
+public class CrackClusterReport {
+
+    private final int iceSheet;
+    private final int columns;
+
+    // The cluster of every cell in row-major order, or -1 for cells outside any cluster.
+    private final int[] labels;
+
+    private int clusters;
+    private int[] sizes = new int[16];
+    private int[] minimumRows = new int[16];
+    private int[] maximumRows = new int[16];
+    private int[] minimumColumns = new int[16];
+    private int[] maximumColumns = new int[16];
+    private long[] rowSums = new long[16];
+    private long[] columnSums = new long[16];
+
+    /**
+     * Creates an empty report for a sheet, its clusters are added by CrackClusterLabeler.
+     *
+     * @param iceSheet The sheet number.
+     * @param columns The number of columns of the sheet.
+     * @param labels The cluster of every cell in row-major order, or -1 for cells outside any cluster.
+     */
+    CrackClusterReport(int iceSheet, int columns, int[] labels) {
+        this.iceSheet = iceSheet;
+        this.columns = columns;
+        this.labels = labels;
+    }
+
+    /**
+     * Starts a new cluster at its first cell and returns its number.
+     */
+    int addCluster(int row, int column) {
+        if (clusters == sizes.length) {
+            int length = clusters * 2;
+            sizes = Arrays.copyOf(sizes, length);
+            minimumRows = Arrays.copyOf(minimumRows, length);
+            maximumRows = Arrays.copyOf(maximumRows, length);
+            minimumColumns = Arrays.copyOf(minimumColumns, length);
+            maximumColumns = Arrays.copyOf(maximumColumns, length);
+            rowSums = Arrays.copyOf(rowSums, length);
+            columnSums = Arrays.copyOf(columnSums, length);
+        }
+        minimumRows[clusters] = row;
+        maximumRows[clusters] = row;
+        minimumColumns[clusters] = column;
+        maximumColumns[clusters] = column;
+        return clusters++;
+    }
+
+    /**
+     * Adds a cell to a cluster.
+     */
+    void addCell(int cluster, int row, int column) {
+        sizes[cluster]++;
+        minimumRows[cluster] = Math.min(minimumRows[cluster], row);
+        maximumRows[cluster] = Math.max(maximumRows[cluster], row);
+        minimumColumns[cluster] = Math.min(minimumColumns[cluster], column);
+        maximumColumns[cluster] = Math.max(maximumColumns[cluster], column);
+        rowSums[cluster] += row;
+        columnSums[cluster] += column;
+    }
+
+    public int getSheet() {
+        return iceSheet;
+    }
+
+    /**
+     * Returns the number of clusters on the sheet.
+     *
+     * @return The number of clusters.
+     */
+    public int getClusterCount() {
+        return clusters;
+    }
+
+    /**
+     * Returns the cluster a cell belongs to.
+     *
+     * @param row The row of the cell.
+     * @param column The column of the cell.
+     * @return The cluster number, or -1 if the cell is in no cluster.
+     */
+    public int getLabel(int row, int column) {
+        return labels[row * columns + column];
+    }
+
+    /**
+     * Returns the number of cells of a cluster.
+     *
+     * @param cluster The cluster number.
+     * @return The size of the cluster.
+     */
+    public int getSize(int cluster) {
+        return sizes[cluster];
+    }
+
+    public int getMinimumRow(int cluster) {
+        return minimumRows[cluster];
+    }
+
+    public int getMaximumRow(int cluster) {
+        return maximumRows[cluster];
+    }
+
+    public int getMinimumColumn(int cluster) {
+        return minimumColumns[cluster];
+    }
+
+    public int getMaximumColumn(int cluster) {
+        return maximumColumns[cluster];
+    }
+
+    /**
+     * Returns the mean row of the cells of a cluster.
+     *
+     * @param cluster The cluster number.
+     * @return The row of the centroid.
+     */
+    public double getCentroidRow(int cluster) {
+        return (double) rowSums[cluster] / sizes[cluster];
+    }
+
+    /**
+     * Returns the mean column of the cells of a cluster.
+     *
+     * @param cluster The cluster number.
+     * @return The column of the centroid.
+     */
+    public double getCentroidColumn(int cluster) {
+        return (double) columnSums[cluster] / sizes[cluster];
+    }
+
+    /**
+     * Returns the largest cluster, the first one on a tie.
+     *
+     * @return The cluster number, or -1 when the sheet has no clusters.
+     */
+    public int getLargestCluster() {
+        int largest = -1;
+        for (int cluster = 0; cluster < clusters; cluster++) {
+            if (largest < 0 || sizes[cluster] > sizes[largest]) {
+                largest = cluster;
+            }
+        }
+        return largest;
+    }
+}
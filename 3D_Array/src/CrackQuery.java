@@ -0,0 +1,465 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.IntBuffer;
+import java.nio.file.Path;
+import java.util.NoSuchElementException;
+
+/**
+ * The CrackQuery class finds cracks lazily: a query names the sheets it is about, an optional filter on
+ * the crack locations and a limit, and its cursor scans the sheets only as far as it is asked to.
+ * Asking whether a sheet has any crack stops at the first crack, and asking for the first 100 cracks
+ * stops at the hundredth, instead of analyzing every sheet.
+ *
+ * The cursor scans a sheet in bands of rows with an IceKernel. The first band of a sheet is a single row,
+ * and every band is twice as tall as the one before up to MAXIMUM_BAND_CELLS, so an early crack is found
+ * after little work while long scans still run in large bands. On a text file the sheets are found through
+ * its IceSheetIndex, and only the rows of each band and a one-row halo around it are read, through one
+ * tokenizer that stays at the row after the last one read until the cursor is closed or runs out; a binary
+ * file is memory-mapped, so only the pages of the rows that are scanned are read.
+ * Created on October 17, 2026
+ * @author Maharshi Patel
+ */
+public class CrackQuery {
+
+    // Largest band of rows scanned at once, in cells.
+    public static final int MAXIMUM_BAND_CELLS = 1 << 16;
+
+    // Sheets come from a store, or are read one at a time from a text file through its index.
+    private final IceSheetStore dataStore;
+    private final IceSheetIndex index;
+    private final String textFilePath;
+
+    private IceKernel kernel = IceKernelBackend.FUSED;
+    private int fromSheet;
+    private int toSheet;
+    private long limit = Long.MAX_VALUE;
+    private LocationFilter filter;
+
+    private CrackQuery(IceSheetStore dataStore, IceSheetIndex index, String textFilePath, int sheets) {
+        this.dataStore = dataStore;
+        this.index = index;
+        this.textFilePath = textFilePath;
+        this.toSheet = sheets;
+    }
+
+    /**
+     * Prints the cracks matching a query, stopping as soon as the limit is reached.
+     * Usage: java CrackQuery ICESHEETS_F24.TXT [--sheets=first-last] [--limit=cracks]
+     *
+     * @param args the text or binary file, then optionally the sheets and the most cracks to print.
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.out.println("Usage: java CrackQuery <file> [--sheets=first-last] [--limit=cracks]");
+            return;
+        }
+        CrackQuery query = open(args[0]);
+        if (query == null) {
+            return;
+        }
+        for (int arg = 1; arg < args.length; arg++) {
+            if (args[arg].startsWith("--sheets=")) {
+                String[] range = args[arg].substring("--sheets=".length()).split("-", 2);
+                int first = Integer.parseInt(range[0]);
+                query.sheets(first, (range.length == 1 ? first : Integer.parseInt(range[1])) + 1);
+            }
+            else if (args[arg].startsWith("--limit=")) {
+                query.limit(Long.parseLong(args[arg].substring("--limit=".length())));
+            }
+        }
+
+        try (Cursor cursor = query.cursor()) {
+            while (cursor.hasNext()) {
+                cursor.next();
+                System.out.printf("CRACK DETECTED @ [Sheet[%d](%d,%d)]\n", cursor.getSheet(), cursor.getRow(), cursor.getColumn());
+            }
+            System.out.printf("\nScanned %d cells\n", cursor.getScannedCells());
+        }
+    }
+
+    /**
+     * Creates a query over the sheets of a store.
+     *
+     * @param dataStore The store containing ice sheet data.
+     * @return A query over every sheet of the store.
+     */
+    public static CrackQuery over(IceSheetStore dataStore) {
+        return new CrackQuery(dataStore, null, null, dataStore.sheetCount());
+    }
+
+    /**
+     * Creates a query over the sheets of a text or binary file, without reading any cells yet.
+     *
+     * @param filePath The path to the ice sheet file.
+     * @return A query over every sheet of the file, or null if an error occurs.
+     */
+    public static CrackQuery open(String filePath) {
+        if (IceBinaryFormat.isBinary(filePath)) {
+            IceSheetStore mappedStore = IceBinaryFormat.open(filePath);
+            return mappedStore == null ? null : over(mappedStore);
+        }
+        IceSheetIndex index = IceSheetIndex.forFile(filePath);
+        return index == null ? null : new CrackQuery(null, index, filePath, index.sheetCount());
+    }
+
+    /**
+     * Limits the query to a range of sheets.
+     *
+     * @param fromSheet The first sheet (inclusive).
+     * @param toSheet The last sheet (exclusive).
+     * @return This query.
+     */
+    public CrackQuery sheets(int fromSheet, int toSheet) {
+        if (fromSheet < 0 || toSheet > sheetCount() || fromSheet > toSheet) {
+            throw new IndexOutOfBoundsException("Sheets " + fromSheet + " to " + toSheet + " are not within 0 to " + sheetCount());
+        }
+        this.fromSheet = fromSheet;
+        this.toSheet = toSheet;
+        return this;
+    }
+
+    /**
+     * Limits the query to one sheet.
+     *
+     * @param iceSheet The sheet number.
+     * @return This query.
+     */
+    public CrackQuery sheet(int iceSheet) {
+        return sheets(iceSheet, iceSheet + 1);
+    }
+
+    /**
+     * Limits the number of cracks the cursor returns.
+     *
+     * @param limit The most cracks returned.
+     * @return This query.
+     */
+    public CrackQuery limit(long limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit must not be negative: " + limit);
+        }
+        this.limit = limit;
+        return this;
+    }
+
+    /**
+     * Keeps only the cracks whose location passes a test.
+     * Filters of the same query are combined with AND.
+     *
+     * @param locationFilter The test of a crack location.
+     * @return This query.
+     */
+    public CrackQuery where(LocationFilter locationFilter) {
+        LocationFilter previous = filter;
+        this.filter = previous == null ? locationFilter : (iceSheet, row, column) ->
+                previous.test(iceSheet, row, column) && locationFilter.test(iceSheet, row, column);
+        return this;
+    }
+
+    /**
+     * Finds the cracks with another kernel, such as one compiled from IceDetectionRules.
+     *
+     * @param kernel The kernel scanning the bands.
+     * @return This query.
+     */
+    public CrackQuery kernel(IceKernel kernel) {
+        this.kernel = kernel;
+        return this;
+    }
+
+    /**
+     * Returns a new cursor over the cracks of the query, in sheet, row and column order.
+     * Nothing is scanned until the cursor is asked for its first crack. A cursor over a text file
+     * should be closed if it is dropped before it runs out of cracks.
+     *
+     * @return The cursor.
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Returns true if the query has at least one crack, scanning only up to the first one.
+     *
+     * @return True when a crack exists.
+     */
+    public boolean any() {
+        try (Cursor cursor = cursor()) {
+            return limit > 0 && cursor.hasNext();
+        }
+    }
+
+    /**
+     * Returns the cracks of the query up to its limit.
+     *
+     * @return The cracks in sheet, row and column order.
+     */
+    public LocationList list() {
+        LocationList cracks = new LocationList();
+        try (Cursor cursor = cursor()) {
+            while (cursor.hasNext()) {
+                cursor.next();
+                cracks.add(cursor.getSheet(), cursor.getRow(), cursor.getColumn());
+            }
+        }
+        return cracks;
+    }
+
+    private int sheetCount() {
+        return dataStore != null ? dataStore.sheetCount() : index.sheetCount();
+    }
+
+    /**
+     * The LocationFilter interface tests the location of a crack for CrackQuery.where.
+     */
+    public interface LocationFilter {
+
+        /**
+         * Tests one crack location.
+         *
+         * @param iceSheet The sheet number.
+         * @param row The row.
+         * @param column The column.
+         * @return True to keep the crack.
+         */
+        boolean test(int iceSheet, int row, int column);
+    }
+
+    /**
+     * The Cursor class walks over the cracks of a query band by band, scanning the next band only when
+     * the cracks of the previous one are used up. A band of a text file is read into a buffer together
+     * with the row above and the row below it, as in TiledIceAnalysis, and the rows it shares with the next
+     * band are kept, so every row is read only once and the cracks found there only move by the buffer's first row.
+     * Like an iterator, hasNext tells whether a crack is left and next moves to it, and the location
+     * of the crack the cursor is on is read with getSheet, getRow and getColumn.
+     */
+    public class Cursor implements AutoCloseable {
+        private int iceSheet = fromSheet;
+        private int row;
+        private int bandRows = 1;
+
+        // Rows of the current text sheet read so far, loadedRows of them from firstRow on, and the stores
+        // viewing them as the current sheet when they fill the buffer or only its start
+        private IceDataTokenizer tokenizer;
+        private int[] buffer = new int[0];
+        private int firstRow;
+        private int loadedRows;
+        private IceSheetStore bandStore;
+        private IceSheetStore partialBandStore;
+
+        private LocationList band = new LocationList();
+        private int next;
+        private long returned;
+
+        // Location of the crack the cursor is on, the sheet is -1 before the first call to next
+        private int currentSheet = -1;
+        private int currentRow;
+        private int currentColumn;
+        private long scannedCells;
+
+        /**
+         * Returns true if the query has another crack, scanning bands until one is found.
+         *
+         * @return True when next can be called.
+         */
+        public boolean hasNext() {
+            if (returned >= limit) {
+                close();
+                return false;
+            }
+            while (next == band.size()) {
+                if (!scanNextBand()) {
+                    close();
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Moves the cursor to the next crack.
+         *
+         * @throws NoSuchElementException If the query has no more cracks.
+         */
+        public void next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            currentSheet = band.sheet(next);
+            currentRow = band.row(next);
+            currentColumn = band.column(next);
+            next++;
+            returned++;
+        }
+
+        /**
+         * Returns the sheet number of the crack the cursor is on.
+         *
+         * @return The sheet number.
+         */
+        public int getSheet() {
+            checkCurrent();
+            return currentSheet;
+        }
+
+        /**
+         * Returns the row of the crack the cursor is on.
+         *
+         * @return The row.
+         */
+        public int getRow() {
+            checkCurrent();
+            return currentRow;
+        }
+
+        /**
+         * Returns the column of the crack the cursor is on.
+         *
+         * @return The column.
+         */
+        public int getColumn() {
+            checkCurrent();
+            return currentColumn;
+        }
+
+        /**
+         * Returns the number of cells scanned so far.
+         *
+         * @return The scanned cells.
+         */
+        public long getScannedCells() {
+            return scannedCells;
+        }
+
+        /**
+         * Closes the text file, if one is open. The cursor closes it by itself when it runs out of cracks.
+         */
+        @Override
+        public void close() {
+            if (tokenizer != null) {
+                try {
+                    tokenizer.close();
+                }
+                catch (IOException exception) {
+                    // Print an error message if the file cannot be closed.
+                    System.out.println(exception.getMessage());
+                }
+                tokenizer = null;
+            }
+        }
+
+        /**
+         * Scans the next band of rows into the band list, moving to the next sheet at the end of a sheet.
+         * Returns false when every sheet of the query has been scanned.
+         */
+        private boolean scanNextBand() {
+            while (iceSheet < toSheet) {
+                int rows = dataStore != null ? dataStore.rows(iceSheet) : index.rows(iceSheet);
+                int columns = dataStore != null ? dataStore.columns(iceSheet) : index.columns(iceSheet);
+                if (row < rows) {
+                    int toRow = (int) Math.min(rows, (long) row + bandRows);
+                    LocationList scanned = new LocationList();
+                    int rowOffset = 0;
+                    if (dataStore != null) {
+                        kernel.scanRows(dataStore, iceSheet, row, toRow, scanned);
+                    }
+                    else {
+                        IceSheetStore sheetStore = readBand(rows, columns, toRow);
+                        rowOffset = firstRow;
+                        kernel.scanRows(sheetStore, iceSheet, row - firstRow, toRow - firstRow, scanned);
+                    }
+                    scannedCells += (long) (toRow - row) * columns;
+                    row = toRow;
+                    bandRows = Math.min(bandRows * 2, Math.max(1, MAXIMUM_BAND_CELLS / Math.max(1, columns)));
+                    band = rowOffset == 0 && filter == null ? scanned : collect(scanned, rowOffset);
+                    next = 0;
+                    return true;
+                }
+
+                // Move to the next sheet, dropping the rows read from a text file.
+                if (bandStore != null) {
+                    bandStore.releaseSheet(iceSheet);
+                    partialBandStore.releaseSheet(iceSheet);
+                }
+                iceSheet++;
+                row = 0;
+                bandRows = 1;
+            }
+            return false;
+        }
+
+        /**
+         * Reads the rows of the band from row to toRow of the current text sheet and the halo rows around it,
+         * opening the file on first use. The rows already read are moved to the start of the buffer, and the
+         * buffer only grows when the band does. Returns the store holding the rows as the current sheet.
+         */
+        private IceSheetStore readBand(int rows, int columns, int toRow) {
+            try {
+                if (tokenizer == null) {
+                    tokenizer = new IceDataTokenizer(Path.of(textFilePath));
+                    bandStore = new IceSheetStore(index.sheetCount(), false);
+                    partialBandStore = new IceSheetStore(index.sheetCount(), true);
+                }
+                if (row == 0) {
+                    tokenizer.seek(index.offset(iceSheet));
+                    firstRow = 0;
+                    loadedRows = 0;
+                }
+
+                // Keep the row above the band and the rows below it that were read as the previous halo.
+                int keptFrom = Math.max(firstRow, row - 1);
+                int keptRows = firstRow + loadedRows - keptFrom;
+                int lastRow = Math.min(rows, toRow + 1);
+                int[] destination = buffer;
+                int cells = Math.multiplyExact(lastRow - keptFrom, columns);
+                if (cells > buffer.length) {
+                    destination = new int[cells];
+                }
+                System.arraycopy(buffer, (keptFrom - firstRow) * columns, destination, 0, keptRows * columns);
+                buffer = destination;
+                firstRow = keptFrom;
+                loadedRows = keptRows;
+
+                while (firstRow + loadedRows < lastRow) {
+                    int offset = loadedRows * columns;
+                    for (int column = 0; column < columns; column++) {
+                        buffer[offset + column] = tokenizer.nextInt();
+                    }
+                    loadedRows++;
+                }
+
+                if (loadedRows * columns == buffer.length) {
+                    bandStore.putSheet(iceSheet, loadedRows, columns, buffer);
+                    return bandStore;
+                }
+                partialBandStore.putSheet(iceSheet, loadedRows, columns, IntBuffer.wrap(buffer, 0, loadedRows * columns));
+                return partialBandStore;
+            }
+            catch (IOException exception) {
+                close();
+                throw new UncheckedIOException("Cannot read sheet " + iceSheet, exception);
+            }
+        }
+
+        /**
+         * Moves the cracks of a band down by the given number of rows and keeps the ones passing the filter.
+         */
+        private LocationList collect(LocationList cracks, int rowOffset) {
+            LocationList kept = new LocationList();
+            for (int crack = 0; crack < cracks.size(); crack++) {
+                int row = cracks.row(crack) + rowOffset;
+                int column = cracks.column(crack);
+                if (filter == null || filter.test(iceSheet, row, column)) {
+                    kept.add(iceSheet, row, column);
+                }
+            }
+            return kept;
+        }
+
+        private void checkCurrent() {
+            if (currentSheet < 0) {
+                throw new IllegalStateException("The cursor is not on a crack, call next first");
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/**
+ * The CrackReport class holds the cracks found by an analysis together with the weak spot
+ * results they were derived from. The cracks are kept in a LocationList,
+ * in sheet, row and column order. It replaces the int[n][3] returned by IceDataAnalysis.cracks.
+ * Created on October 17, 2026
+ * @author Maharshi Patel
+ */
+public class CrackReport {
+
+    private final WeakSpotReport weakSpots;
+    private final LocationList cracks;
+
+    /**
+     * Creates a report from the weak spot results and the cracks.
+     *
+     * @param weakSpots The weak spot results of the same analysis.
+     * @param cracks The cracks, in sheet, row and column order.
+     */
+    public CrackReport(WeakSpotReport weakSpots, LocationList cracks) {
+        this.weakSpots = weakSpots;
+        this.cracks = cracks;
+    }
+
+    /**
+     * Returns the weak spot results the cracks were derived from.
+     *
+     * @return The weak spot report.
+     */
+    public WeakSpotReport getWeakSpots() {
+        return weakSpots;
+    }
+
+    /**
+     * Returns the cracks as a list of locations.
+     *
+     * @return The crack locations.
+     */
+    public LocationList getCracks() {
+        return cracks;
+    }
+
+    /**
+     * Returns the total number of cracks.
+     *
+     * @return The number of weak spots that have cracked.
+     */
+    public int getCrackCount() {
+        return cracks.size();
+    }
+
+    /**
+     * Returns the fraction of weak spots that are also cracks.
+     *
+     * @return The number of cracks divided by the number of weak spots.
+     */
+    public double getCrackFraction() {
+        return (double) cracks.size() / weakSpots.getTotalWeakSpots();
+    }
+
+    /**
+     * Passes every crack to the consumer, in sheet, row and column order.
+     *
+     * @param consumer The consumer receiving the sheet, row and column of each crack.
+     */
+    public void forEach(LocationList.LocationConsumer consumer) {
+        cracks.forEach(consumer);
+    }
+}
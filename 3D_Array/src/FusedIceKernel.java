@@ -0,0 +1,118 @@
+import java.util.Arrays;
+
+/**
+ * The FusedIceKernel class finds the weak spots and the cracks of an ice sheet in a single
+ * streaming pass. Every cell is read once, when its row enters a rolling window of three
+ * flag rows. The flag rows are padded with an empty column on each side, and the rows above
+ * the first row and below the last row are empty, so the eight neighbours of every cell can
+ * be tested without any corner or edge special cases.
+ * A weak spot has a value less than or equal to 200 and divisible by 50, and it is a crack
+ * when any of its eight neighbours is divisible by 10.
+ * Created on October 17, 2026
+ * @author Maharshi Patel
+ */
+public class FusedIceKernel {
+
+    // Flag bits stored for every cell of the rolling window.
+    private static final byte DIVISIBLE_BY_TEN = 1;
+    private static final byte WEAK_SPOT = 2;
+
+    /**
+     * Finds the weak spots and cracks of every ice sheet in the store.
+     * The weak spot locations themselves are not collected.
+     *
+     * @param dataStore The store containing ice sheet data.
+     * @return The weak spot counts and the cracks of all sheets, in sheet, row and column order.
+     */
+    public static CrackReport analyze(IceSheetStore dataStore) {
+        return IceKernelBackend.FUSED.analyze(dataStore);
+    }
+
+    /**
+     * Finds the weak spots and cracks in a band of rows of one ice sheet.
+     * The rows just outside the band are read as neighbours, so bands of the same sheet
+     * can be scanned independently and their results concatenated in row order.
+     *
+     * @param dataStore The store containing ice sheet data.
+     * @param iceSheet The sheet number.
+     * @param fromRow The first row of the band (inclusive).
+     * @param toRow The last row of the band (exclusive).
+     * @param cracks List receiving the cracks found in the band, in row and column order.
+     * @return The number of weak spots in the band.
+     */
+    public static int scanRows(IceSheetStore dataStore, int iceSheet, int fromRow, int toRow, LocationList cracks) {
+        int rows = dataStore.rows(iceSheet);
+        int columns = dataStore.columns(iceSheet);
+
+        // Sheets with a single row or column never report cracks, as in IceDataAnalysis.cracks.
+        boolean crackable = rows > 1 && columns > 1;
+
+        // Rolling window of flag rows (previous, current, next) with a padding column on each side.
+        byte[] previous = new byte[columns + 2];
+        byte[] current = new byte[columns + 2];
+        byte[] next = new byte[columns + 2];
+        int[] rowBuffer = new int[columns];
+
+        if (fromRow > 0) {
+            fillFlags(dataStore, iceSheet, fromRow - 1, rowBuffer, previous);
+        }
+        if (fromRow < toRow) {
+            fillFlags(dataStore, iceSheet, fromRow, rowBuffer, current);
+        }
+
+        int weakSpots = 0;
+        for (int row = fromRow; row < toRow; row++) {
+            // Bring the next row into the window, or an empty row below the last row.
+            if (row + 1 < rows) {
+                fillFlags(dataStore, iceSheet, row + 1, rowBuffer, next);
+            }
+            else {
+                Arrays.fill(next, (byte) 0);
+            }
+
+            for (int column = 0; column < columns; column++) {
+                if ((current[column + 1] & WEAK_SPOT) != 0) {
+                    weakSpots++;
+
+                    // Test the eight neighbours at once, the padding is never divisible by ten.
+                    int neighbours = previous[column] | previous[column + 1] | previous[column + 2]
+                            | current[column] | current[column + 2]
+                            | next[column] | next[column + 1] | next[column + 2];
+                    if (crackable && (neighbours & DIVISIBLE_BY_TEN) != 0) {
+                        cracks.add(iceSheet, row, column);
+                    }
+                }
+            }
+
+            // Rotate the window down by one row.
+            byte[] recycled = previous;
+            previous = current;
+            current = next;
+            next = recycled;
+        }
+        return weakSpots;
+    }
+
+    /**
+     * Reads one row of a sheet and stores its flags in the padded flag row.
+     */
+    private static void fillFlags(IceSheetStore dataStore, int iceSheet, int row, int[] rowBuffer, byte[] flags) {
+        int columns = rowBuffer.length;
+        int[] cells = dataStore.heapCells(iceSheet);
+        int rowStart = row * columns;
+
+        // Read straight from the heap block, or copy the row out of the off-heap buffer.
+        if (cells == null) {
+            dataStore.copyRow(iceSheet, row, rowBuffer);
+            cells = rowBuffer;
+            rowStart = 0;
+        }
+
+        for (int column = 0; column < columns; column++) {
+            int value = cells[rowStart + column];
+            int divisibleByTen = (value % 10 == 0) ? DIVISIBLE_BY_TEN : 0;
+            int weakSpot = (value <= 200 & value % 50 == 0) ? WEAK_SPOT : 0;
+            flags[column + 1] = (byte) (divisibleByTen | weakSpot);
+        }
+    }
+}
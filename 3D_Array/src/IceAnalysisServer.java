@@ -0,0 +1,387 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+
+/**
+ * The IceAnalysisServer class is a long-running local server that keeps the results of analyzed datasets
+ * in memory, so tools asking about the same few files pay neither JVM startup nor parsing and scanning again.
+ * It listens on the loopback address only, and answers one request per line:
+ *
+ *   SUMMARY path              the sheet count, weak spot total, worst sheet, crack count and crack fraction
+ *   SHEET path sheet          the rows, columns, weak spots and cracks of one sheet
+ *   CRACKS path [sheet|*] [limit]  the number of cracks listed, then one "sheet row column" line per crack
+ *   STATS                     the hits, misses, entries and bytes of the cache
+ *   QUIT                      closes the connection
+ *
+ * Every answer starts with OK or ERROR. The results are kept in an LRU cache bounded by their estimated size
+ * in bytes and keyed by the absolute path, modification time and size of the file, so a changed file is
+ * analyzed again. Clients asking for a file that is being analyzed wait for that analysis instead of starting
+ * another one. A warm query is a map lookup and a few formatted numbers.
+ * Created on October 17, 2026
+ * @author Maharshi Patel
+ */
+public class IceAnalysisServer {
+
+    // Default port and cache capacity.
+    public static final int DEFAULT_PORT = 47100;
+    public static final long DEFAULT_CACHE_BYTES = 256L << 20;
+
+    private final ResultCache cache;
+    private final ParallelIceAnalysis analysis;
+    private final ExecutorService connections = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "ice-server-connection");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Analyses in progress, so concurrent misses of the same file share one analysis.
+    private final Map<CacheKey, FutureTask<CachedAnalysis>> loading = new HashMap<>();
+
+    /**
+     * The CacheKey class identifies one version of a dataset.
+     */
+    private static class CacheKey {
+        private final Path path;
+        private final long modified;
+        private final long size;
+
+        CacheKey(Path path, long modified, long size) {
+            this.path = path;
+            this.modified = modified;
+            this.size = size;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof CacheKey key && path.equals(key.path) && modified == key.modified && size == key.size;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(path, modified, size);
+        }
+    }
+
+    /**
+     * The CachedAnalysis class holds the results of one dataset, with the index of the first crack of every sheet.
+     */
+    private static class CachedAnalysis {
+        private final int[] rows;
+        private final int[] columns;
+        private final CrackReport report;
+        private final int[] firstCracks;
+
+        CachedAnalysis(IceSheetStore dataStore, CrackReport report) {
+            int iceSheets = dataStore.sheetCount();
+            this.rows = new int[iceSheets];
+            this.columns = new int[iceSheets];
+            this.report = report;
+            this.firstCracks = new int[iceSheets + 1];
+
+            LocationList cracks = report.getCracks();
+            int crack = 0;
+            for (int iceSheet = 0; iceSheet < iceSheets; iceSheet++) {
+                rows[iceSheet] = dataStore.rows(iceSheet);
+                columns[iceSheet] = dataStore.columns(iceSheet);
+                firstCracks[iceSheet] = crack;
+                while (crack < cracks.size() && cracks.sheet(crack) == iceSheet) {
+                    crack++;
+                }
+            }
+            firstCracks[iceSheets] = crack;
+        }
+
+        /**
+         * Returns the estimated heap size of the results.
+         */
+        long bytes() {
+            return 4L * Integer.BYTES * rows.length + (long) Long.BYTES * report.getCrackCount() + 256;
+        }
+    }
+
+    /**
+     * The ResultCache class is an LRU map of analyses bounded by their total estimated size.
+     * The most recently added analysis is always kept, even if it is larger than the whole capacity.
+     */
+    private static class ResultCache {
+        private final long capacity;
+        private final LinkedHashMap<CacheKey, CachedAnalysis> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private long bytes;
+        private long hits;
+        private long misses;
+
+        ResultCache(long capacity) {
+            this.capacity = capacity;
+        }
+
+        synchronized CachedAnalysis get(CacheKey key) {
+            CachedAnalysis analysis = entries.get(key);
+            if (analysis != null) {
+                hits++;
+            }
+            else {
+                misses++;
+            }
+            return analysis;
+        }
+
+        synchronized void put(CacheKey key, CachedAnalysis analysis) {
+            CachedAnalysis replaced = entries.put(key, analysis);
+            bytes += analysis.bytes() - (replaced == null ? 0 : replaced.bytes());
+
+            // Drop the least recently used analyses, older versions of a file go the same way.
+            Iterator<Map.Entry<CacheKey, CachedAnalysis>> eldest = entries.entrySet().iterator();
+            while (bytes > capacity && entries.size() > 1) {
+                bytes -= eldest.next().getValue().bytes();
+                eldest.remove();
+            }
+        }
+
+        synchronized String stats() {
+            return String.format("OK hits=%d misses=%d entries=%d bytes=%d capacity=%d", hits, misses, entries.size(), bytes, capacity);
+        }
+    }
+
+    /**
+     * Creates a server.
+     *
+     * @param cacheBytes The most bytes of results kept in the cache.
+     * @param parallelism The number of threads analyzing a dataset.
+     */
+    public IceAnalysisServer(long cacheBytes, int parallelism) {
+        this.cache = new ResultCache(cacheBytes);
+        this.analysis = new ParallelIceAnalysis(parallelism);
+    }
+
+    /**
+     * Starts a server on the loopback address.
+     *
+     * @param args optionally --port=port, --cache=megabytes and --parallel=threads.
+     */
+    public static void main(String[] args) {
+        int port = DEFAULT_PORT;
+        long cacheBytes = DEFAULT_CACHE_BYTES;
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        for (String arg : args) {
+            if (arg.startsWith("--port=")) {
+                port = Integer.parseInt(arg.substring("--port=".length()));
+            }
+            else if (arg.startsWith("--cache=")) {
+                cacheBytes = Long.parseLong(arg.substring("--cache=".length())) << 20;
+            }
+            else if (arg.startsWith("--parallel=")) {
+                parallelism = Integer.parseInt(arg.substring("--parallel=".length()));
+            }
+        }
+
+        try (ServerSocket serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+            System.out.printf("Ice analysis server listening on %s:%d\n", serverSocket.getInetAddress().getHostAddress(), serverSocket.getLocalPort());
+            new IceAnalysisServer(cacheBytes, parallelism).serve(serverSocket);
+        }
+        catch (IOException exception) {
+            // Print an error message if the port cannot be opened.
+            System.out.println(exception.getMessage());
+        }
+    }
+
+    /**
+     * Accepts connections until the server socket is closed, answering each one on its own thread.
+     *
+     * @param serverSocket The bound server socket.
+     */
+    public void serve(ServerSocket serverSocket) {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                connections.execute(() -> handle(socket));
+            }
+            catch (IOException exception) {
+                if (!serverSocket.isClosed()) {
+                    System.out.println(exception.getMessage());
+                }
+            }
+        }
+        connections.shutdown();
+        analysis.shutdown();
+    }
+
+    /**
+     * Answers the requests of one connection until the client quits or disconnects.
+     */
+    private void handle(Socket socket) {
+        try (socket;
+             BufferedReader input = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             Writer output = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII), 1 << 16)) {
+            String request;
+            while ((request = input.readLine()) != null) {
+                if (request.trim().equalsIgnoreCase("QUIT")) {
+                    return;
+                }
+                answer(request.trim(), output);
+                output.flush();
+            }
+        }
+        catch (IOException exception) {
+            // The client went away, nothing to answer.
+        }
+    }
+
+    /**
+     * Writes the answer to one request.
+     *
+     * @param request The request line.
+     * @param output The writer receiving the answer.
+     * @throws IOException If the answer cannot be written.
+     */
+    public void answer(String request, Writer output) throws IOException {
+        String[] words = request.split("\\s+");
+        try {
+            switch (words[0].toUpperCase()) {
+                case "SUMMARY" -> {
+                    CachedAnalysis result = lookup(words, 2);
+                    WeakSpotReport weakSpots = result.report.getWeakSpots();
+                    output.write(String.format("OK sheets=%d weakSpots=%d maximumSheet=%d maximumWeakSpots=%d cracks=%d fraction=%.3f\n",
+                            weakSpots.getSheetCount(), weakSpots.getTotalWeakSpots(), weakSpots.getMaximumWeakSpotsSheet(),
+                            weakSpots.getMaximumWeakSpots(), result.report.getCrackCount(), result.report.getCrackFraction()));
+                }
+                case "SHEET" -> {
+                    CachedAnalysis result = lookup(words, 3);
+                    int iceSheet = sheetNumber(result, words[2]);
+                    output.write(String.format("OK sheet=%d rows=%d columns=%d weakSpots=%d cracks=%d\n", iceSheet,
+                            result.rows[iceSheet], result.columns[iceSheet], result.report.getWeakSpots().getWeakSpots(iceSheet),
+                            result.firstCracks[iceSheet + 1] - result.firstCracks[iceSheet]));
+                }
+                case "CRACKS" -> {
+                    if (words.length > 4) {
+                        throw new IllegalArgumentException("Usage: CRACKS path [sheet|*] [limit]");
+                    }
+                    CachedAnalysis result = lookup(words, 2);
+                    int from = 0;
+                    int to = result.report.getCrackCount();
+                    if (words.length > 2 && !words[2].equals("*")) {
+                        int iceSheet = sheetNumber(result, words[2]);
+                        from = result.firstCracks[iceSheet];
+                        to = result.firstCracks[iceSheet + 1];
+                    }
+                    if (words.length > 3) {
+                        to = (int) Math.min(to, from + Math.max(0L, Long.parseLong(words[3])));
+                    }
+                    writeCracks(result.report.getCracks(), from, to, output);
+                }
+                case "STATS" -> output.write(cache.stats() + "\n");
+                default -> output.write("ERROR unknown request: " + words[0] + "\n");
+            }
+        }
+        catch (IOException | RuntimeException exception) {
+            output.write("ERROR " + exception.getMessage() + "\n");
+        }
+    }
+
+    /**
+     * Returns the cached analysis of the file named in a request, analyzing the file on a miss.
+     */
+    private CachedAnalysis lookup(String[] words, int minimumWords) throws IOException {
+        if (words.length < minimumWords) {
+            throw new IllegalArgumentException("Missing arguments for " + words[0]);
+        }
+        Path path = Path.of(words[1]).toAbsolutePath().normalize();
+        CacheKey key = new CacheKey(path, Files.getLastModifiedTime(path).toMillis(), Files.size(path));
+
+        CachedAnalysis result = cache.get(key);
+        if (result != null) {
+            return result;
+        }
+
+        FutureTask<CachedAnalysis> task;
+        boolean owner = false;
+        synchronized (loading) {
+            task = loading.get(key);
+            if (task == null) {
+                task = new FutureTask<>(() -> analyze(path));
+                loading.put(key, task);
+                owner = true;
+            }
+        }
+        try {
+            if (owner) {
+                task.run();
+            }
+            result = task.get();
+            if (owner) {
+                cache.put(key, result);
+            }
+            return result;
+        }
+        catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while analyzing " + path);
+        }
+        catch (ExecutionException exception) {
+            throw new IOException(exception.getCause().getMessage());
+        }
+        finally {
+            if (owner) {
+                synchronized (loading) {
+                    loading.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Loads and analyzes a text or binary file.
+     */
+    private CachedAnalysis analyze(Path path) throws IOException {
+        String filePath = path.toString();
+        IceSheetStore dataStore = IceBinaryFormat.isBinary(filePath)
+                ? IceBinaryFormat.open(filePath)
+                : new IceDataLoader(filePath).loadStore(false);
+        if (dataStore == null) {
+            throw new IOException("Cannot read " + filePath);
+        }
+        return new CachedAnalysis(dataStore, analysis.analyze(dataStore));
+    }
+
+    /**
+     * Reads a sheet number of a request and checks that the file has that sheet.
+     */
+    private static int sheetNumber(CachedAnalysis result, String word) {
+        int iceSheet = Integer.parseInt(word);
+        if (iceSheet < 0 || iceSheet >= result.rows.length) {
+            throw new IllegalArgumentException("No sheet " + iceSheet + ", the file has " + result.rows.length + " sheets");
+        }
+        return iceSheet;
+    }
+
+    /**
+     * Writes the number of cracks in a range of the crack list, then one line per crack.
+     */
+    private static void writeCracks(LocationList cracks, int from, int to, Writer output) throws IOException {
+        output.write("OK " + (to - from) + "\n");
+        StringBuilder line = new StringBuilder(32);
+        for (int crack = from; crack < to; crack++) {
+            line.setLength(0);
+            line.append(cracks.sheet(crack)).append(' ').append(cracks.row(crack)).append(' ').append(cracks.column(crack)).append('\n');
+            output.append(line);
+        }
+    }
+}
@@ -0,0 +1,361 @@
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The IceBatchAnalysis class analyzes every ice sheet file of a directory, or every file matching
+ * a glob, in one JVM. The files are analyzed concurrently on one work-stealing ForkJoin pool: each file
+ * is a task, and its sheets are split into bands (ParallelIceAnalysis) on the same pool, so workers that
+ * run out of files steal bands of the files still being analyzed.
+ *
+ * A memory budget bounds how many files are loaded at once. Before a file is handed to the pool, its size
+ * in bytes is reserved from the budget (the loaded cells take about as many bytes as their text), and the
+ * task gives it back when its analysis is done. A file larger than the whole budget waits until it can run
+ * alone. Only the submitting thread ever waits for the budget, never a worker of the pool.
+ * Only the counts of each file are kept, not its cracks, so the results stay small.
+ * Created on October 17, 2026
+ * @author Maharshi Patel
+ */
+public class IceBatchAnalysis {
+
+    // Files picked from a directory when no glob is given.
+    public static final String DEFAULT_GLOB = "ICESHEETS_*";
+
+    // Default memory budget for the loaded files, in bytes (a quarter of the maximum heap).
+    public static final long DEFAULT_MEMORY_BUDGET = Runtime.getRuntime().maxMemory() / 4;
+
+    private final ForkJoinPool pool;
+    private final ParallelIceAnalysis analysis;
+    private final MemoryBudget budget;
+
+    /**
+     * The FileResult class holds the counts of one analyzed file.
+     */
+    public static class FileResult {
+        private final Path file;
+        private final int sheets;
+        private final long cells;
+        private final long weakSpots;
+        private final int worstSheet;
+        private final int worstSheetWeakSpots;
+        private final long cracks;
+        private final long elapsedMillis;
+
+        FileResult(Path file, IceSheetStore dataStore, CrackReport report, long elapsedMillis) {
+            WeakSpotReport weakSpotReport = report.getWeakSpots();
+            this.file = file;
+            this.sheets = dataStore.sheetCount();
+            this.cells = dataStore.cellCount();
+            this.weakSpots = weakSpotReport.getTotalWeakSpots();
+            this.worstSheet = weakSpotReport.getMaximumWeakSpotsSheet();
+            this.worstSheetWeakSpots = weakSpotReport.getMaximumWeakSpots();
+            this.cracks = report.getCrackCount();
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public Path getFile() {
+            return file;
+        }
+
+        public int getSheets() {
+            return sheets;
+        }
+
+        public long getCells() {
+            return cells;
+        }
+
+        public long getWeakSpots() {
+            return weakSpots;
+        }
+
+        public int getWorstSheet() {
+            return worstSheet;
+        }
+
+        public int getWorstSheetWeakSpots() {
+            return worstSheetWeakSpots;
+        }
+
+        public long getCracks() {
+            return cracks;
+        }
+
+        public double getCrackFraction() {
+            return (double) cracks / weakSpots;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+    }
+
+    /**
+     * Creates a batch analysis.
+     *
+     * @param parallelism The number of worker threads.
+     * @param memoryBudget The most bytes of files loaded at the same time.
+     * @param kernel The kernel used to scan the sheets.
+     */
+    public IceBatchAnalysis(int parallelism, long memoryBudget, IceKernel kernel) {
+        this.pool = new ForkJoinPool(parallelism);
+        this.analysis = new ParallelIceAnalysis(pool, ParallelIceAnalysis.DEFAULT_BAND_CELLS, kernel);
+        this.budget = new MemoryBudget(memoryBudget);
+    }
+
+    /**
+     * Analyzes a directory of ice sheet files and prints the counts of each file and of all files.
+     *
+     * @param args a directory or a glob such as data/ICESHEETS_*.TXT, then optionally
+     *             --parallel=threads, --memory=megabytes, --backend=fused|bitset|vector and --rules=...,
+     *             where rules other than the original ones need the default fused backend.
+     */
+    public static void main(String[] args) {
+        String pattern = null;
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        long memoryBudget = DEFAULT_MEMORY_BUDGET;
+        IceKernelBackend backend = IceKernelBackend.FUSED;
+        IceDetectionRules rules = IceDetectionRules.DEFAULT;
+        for (String arg : args) {
+            if (arg.startsWith("--parallel=")) {
+                parallelism = Integer.parseInt(arg.substring("--parallel=".length()));
+            }
+            else if (arg.startsWith("--memory=")) {
+                memoryBudget = Long.parseLong(arg.substring("--memory=".length())) << 20;
+            }
+            else if (arg.startsWith("--backend=")) {
+                backend = IceKernelBackend.valueOf(arg.substring("--backend=".length()).toUpperCase());
+            }
+            else if (arg.startsWith("--rules=")) {
+                rules = IceDetectionRules.parse(arg.substring("--rules=".length()));
+            }
+            else {
+                pattern = arg;
+            }
+        }
+        if (pattern == null) {
+            System.out.println("Usage: java IceBatchAnalysis <directory or glob> [--parallel=threads] [--memory=MB] [--backend=...] [--rules=...]");
+            return;
+        }
+
+        // Pick the kernel once both flags are read, whatever their order
+        IceKernel kernel;
+        try {
+            kernel = rules.kernelFor(backend);
+        }
+        catch (IllegalArgumentException exception) {
+            System.out.println(exception.getMessage());
+            return;
+        }
+
+        long startms = System.currentTimeMillis();
+        List<Path> files = findFiles(pattern);
+        if (files == null) {
+            return;
+        }
+        IceBatchAnalysis batch = new IceBatchAnalysis(parallelism, memoryBudget, kernel);
+        List<FileResult> results = batch.analyze(files);
+        batch.shutdown();
+
+        printResults(results);
+        System.out.printf("\nTime = %d ms\n", System.currentTimeMillis() - startms);
+    }
+
+    /**
+     * Lists the files of a directory that match DEFAULT_GLOB, or the files matching a glob
+     * whose last path element holds the wildcards, sorted by name.
+     *
+     * @param pattern A directory, or a glob such as data/ICESHEETS_*.TXT.
+     * @return The matching files, or null if an error occurs.
+     */
+    public static List<Path> findFiles(String pattern) {
+        Path path = Path.of(pattern);
+        Path directory = path;
+        String glob = DEFAULT_GLOB;
+        if (!Files.isDirectory(path)) {
+            directory = path.getParent() == null ? Path.of(".") : path.getParent();
+            glob = path.getFileName().toString();
+        }
+
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, glob)) {
+            for (Path entry : entries) {
+                String name = entry.toString();
+                if (Files.isRegularFile(entry) && !name.endsWith(IceSheetIndex.INDEX_EXTENSION)
+                        && !name.endsWith(IceSummedAreaTable.TABLE_EXTENSION)) {
+                    files.add(entry);
+                }
+            }
+        }
+        catch (IOException exception) {
+            // Print an error message if the directory cannot be read.
+            System.out.println(exception.getMessage());
+            return null;
+        }
+        files.sort(null);
+        return files;
+    }
+
+    /**
+     * Analyzes the files concurrently.
+     *
+     * @param files The text or binary ice sheet files.
+     * @return The counts of every file in the order of the list, null for a file that could not be read.
+     */
+    public List<FileResult> analyze(List<Path> files) {
+        FileResult[] results = new FileResult[files.size()];
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (int index = 0; index < files.size(); index++) {
+            // Reserve the file's share of the budget here, so no worker of the pool ever waits for memory.
+            long reserved;
+            try {
+                reserved = budget.reserve(Files.size(files.get(index)));
+            }
+            catch (IOException exception) {
+                // Print an error message if the file cannot be read.
+                System.out.println(exception.getMessage());
+                continue;
+            }
+            tasks.add(pool.submit(new FileTask(files.get(index), index, results, reserved)));
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Stops the worker threads of the pool.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Prints the counts of every file, then the totals over all files.
+     *
+     * @param results The counts of the files, in order.
+     */
+    public static void printResults(List<FileResult> results) {
+        long weakSpots = 0;
+        long cracks = 0;
+        long cells = 0;
+        int files = 0;
+        FileResult worst = null;
+
+        for (FileResult result : results) {
+            if (result == null) {
+                continue;
+            }
+            System.out.printf("%s: %d sheets, %d weak spots, sheet %d has the most = %d, %d cracks, fraction %.3f, %d ms\n",
+                    result.getFile(), result.getSheets(), result.getWeakSpots(), result.getWorstSheet(),
+                    result.getWorstSheetWeakSpots(), result.getCracks(), result.getCrackFraction(), result.getElapsedMillis());
+
+            files++;
+            weakSpots += result.getWeakSpots();
+            cracks += result.getCracks();
+            cells += result.getCells();
+            // The first file with the strictly highest sheet wins a tie, as sheets do within a file.
+            if (worst == null || result.getWorstSheetWeakSpots() > worst.getWorstSheetWeakSpots()) {
+                worst = result;
+            }
+        }
+
+        System.out.println("\nTOTAL");
+        System.out.printf("Files = %d, cells = %d\n", files, cells);
+        System.out.printf("Total weak Spots on all Sheets = %d\n", weakSpots);
+        if (worst != null) {
+            System.out.printf("Sheet %d of %s has the highest number of weak Spots = %d\n",
+                    worst.getWorstSheet(), worst.getFile(), worst.getWorstSheetWeakSpots());
+        }
+        System.out.printf("The total number of weak spots that have cracked = %d\n", cracks);
+        System.out.printf("The fraction of weak spots that are also cracks is %.3f\n", (double) cracks / weakSpots);
+    }
+
+    /**
+     * The FileTask class loads and analyzes one file, and gives its share of the memory budget back.
+     */
+    @SuppressWarnings("serial")
+    private class FileTask extends RecursiveAction {
+        private final Path file;
+        private final int index;
+        private final FileResult[] results;
+        private final long reserved;
+
+        FileTask(Path file, int index, FileResult[] results, long reserved) {
+            this.file = file;
+            this.index = index;
+            this.results = results;
+            this.reserved = reserved;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                long startms = System.currentTimeMillis();
+                String filePath = file.toString();
+                IceSheetStore dataStore = IceBinaryFormat.isBinary(filePath)
+                        ? IceBinaryFormat.open(filePath)
+                        : new IceDataLoader(filePath).loadStore(false);
+                if (dataStore != null) {
+                    CrackReport report = analysis.analyze(dataStore);
+                    results[index] = new FileResult(file, dataStore, report, System.currentTimeMillis() - startms);
+                }
+            }
+            catch (RuntimeException exception) {
+                // Print the file and the error if the file is malformed, its result stays null and the other files go on.
+                System.out.println(file + ": " + exception);
+            }
+            finally {
+                budget.release(reserved);
+            }
+        }
+    }
+
+    /**
+     * The MemoryBudget class hands out bytes of a fixed budget, making callers wait while it is used up.
+     * A request larger than the whole budget is cut down to the whole budget.
+     */
+    private static class MemoryBudget {
+        private final long capacity;
+        private long available;
+
+        MemoryBudget(long capacity) {
+            this.capacity = Math.max(1, capacity);
+            this.available = this.capacity;
+        }
+
+        /**
+         * Waits until the bytes are available and takes them, returning the bytes actually taken.
+         */
+        synchronized long reserve(long bytes) {
+            long wanted = Math.min(capacity, Math.max(1, bytes));
+            boolean interrupted = false;
+            while (available < wanted) {
+                try {
+                    wait();
+                }
+                catch (InterruptedException exception) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            available -= wanted;
+            return wanted;
+        }
+
+        synchronized void release(long bytes) {
+            available += bytes;
+            notifyAll();
+        }
+    }
+}
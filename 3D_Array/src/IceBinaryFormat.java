@@ -0,0 +1,208 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The IceBinaryFormat class converts ice sheet text files into a compact binary format and
+ * opens binary files as memory-mapped IceSheetStores, so datasets that are analyzed repeatedly
+ * do not have to be parsed again on every run.
+ *
+ * All numbers are little-endian. The file starts with a 16 byte header (the magic number "ICEB",
+ * the format version, the number of ice sheets, and a reserved int), followed by a directory with
+ * one 16 byte entry per sheet (the byte offset of its cells as a long, its rows, and its columns),
+ * followed by the row-major int cells of every sheet.
+ * Created on October 17, 2026
+ * @author Maharshi Patel
+ */
+public class IceBinaryFormat {
+
+    // "ICEB" read as a little-endian int.
+    public static final int MAGIC = 0x42454349;
+    public static final int VERSION = 1;
+
+    // Sizes of the header and of one directory entry in bytes.
+    public static final int HEADER_BYTES = 16;
+    public static final int DIRECTORY_ENTRY_BYTES = 16;
+
+    // Directory entries mapped at once when a file is opened (1 GB of entries).
+    private static final int DIRECTORY_WINDOW_ENTRIES = 1 << 26;
+
+    // Size of the buffer used to write cells while converting.
+    private static final int WRITE_BUFFER_BYTES = 1 << 20;
+
+    /**
+     * Converts an ice sheet text file into the binary format.
+     * Usage: java IceBinaryFormat ICESHEETS_F24.TXT ICESHEETS_F24.ICEB
+     *
+     * @param args the text file to read and the binary file to write.
+     */
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.out.println("Usage: java IceBinaryFormat <text file> <binary file>");
+            return;
+        }
+        long startms = System.currentTimeMillis();
+        if (convert(args[0], args[1])) {
+            System.out.printf("Converted %s to %s in %d ms\n", args[0], args[1], System.currentTimeMillis() - startms);
+        }
+    }
+
+    /**
+     * Converts an ice sheet text file into the binary format, one sheet at a time.
+     *
+     * @param textFilePath The path to the text file containing the ice sheet data.
+     * @param binaryFilePath The path of the binary file to write.
+     * @return True if the file was converted, false if an error occurs.
+     */
+    public static boolean convert(String textFilePath, String binaryFilePath) {
+        try (IceDataTokenizer tokenizer = new IceDataTokenizer(Path.of(textFilePath));
+             FileChannel output = FileChannel.open(Path.of(binaryFilePath), StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+
+            int iceSheets = tokenizer.nextInt();
+            if (iceSheets < 0) {
+                throw new IOException(textFilePath + " starts with a negative number of sheets: " + iceSheets);
+            }
+
+            // The directory is filled in while the sheets are written, and written last.
+            ByteBuffer directory = ByteBuffer.allocate(HEADER_BYTES + iceSheets * DIRECTORY_ENTRY_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            directory.putInt(MAGIC).putInt(VERSION).putInt(iceSheets).putInt(0);
+
+            ByteBuffer cells = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            long offset = directory.capacity();
+            output.position(offset);
+
+            for (int iceSheet = 0; iceSheet < iceSheets; iceSheet++) {
+                int rows = tokenizer.nextInt();
+                int columns = tokenizer.nextInt();
+                if (rows < 0 || columns < 0) {
+                    throw new IOException(textFilePath + " gives sheet " + iceSheet + " a size of " + rows + "x" + columns);
+                }
+                directory.putLong(offset).putInt(rows).putInt(columns);
+
+                // Copy the cells of the sheet, flushing the buffer whenever it is full.
+                long sheetCells = (long) rows * columns;
+                for (long cell = 0; cell < sheetCells; cell++) {
+                    if (!cells.hasRemaining()) {
+                        writeFully(output, cells);
+                    }
+                    cells.putInt(tokenizer.nextInt());
+                }
+                offset += sheetCells * Integer.BYTES;
+            }
+            writeFully(output, cells);
+
+            // Write the header and the directory at the start of the file.
+            output.position(0);
+            writeFully(output, directory);
+            return true;
+        }
+        catch (IOException exception) {
+            // Print an error message if a file cannot be read or written.
+            System.out.println(exception.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * Returns true if the given file starts with the binary format's magic number.
+     *
+     * @param filePath The path of the file to check.
+     * @return True for a binary ice sheet file, false otherwise (or if the file cannot be read).
+     */
+    public static boolean isBinary(String filePath) {
+        try (FileChannel channel = FileChannel.open(Path.of(filePath), StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(magic, 0);
+            return !magic.hasRemaining() && magic.getInt(0) == MAGIC;
+        }
+        catch (IOException exception) {
+            return false;
+        }
+    }
+
+    /**
+     * Opens a binary ice sheet file as a store whose sheets are memory-mapped views of the file.
+     * Nothing is decoded: the cells are read in place from the page cache by the analysis.
+     * The mapped sheets are read-only. A sheet larger than IceSheetStore.CHUNK_CELLS is mapped in
+     * several views, since one mapping cannot pass 2 GB. The header and directory are checked against
+     * the size of the file before anything is mapped.
+     *
+     * @param binaryFilePath The path of the binary file.
+     * @return A store with the ice sheets data, or null if an error occurs.
+     */
+    public static IceSheetStore open(String binaryFilePath) {
+        try (FileChannel channel = FileChannel.open(Path.of(binaryFilePath), StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_BYTES) {
+                throw new IOException(binaryFilePath + " is too short to be a binary ice sheet file");
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                throw new IOException(binaryFilePath + " is not a version " + VERSION + " binary ice sheet file");
+            }
+            int iceSheets = header.getInt(8);
+            long cellsStart = HEADER_BYTES + (long) iceSheets * DIRECTORY_ENTRY_BYTES;
+            if (iceSheets < 0) {
+                throw new IOException(binaryFilePath + " has a negative number of sheets: " + iceSheets);
+            }
+            if (cellsStart > fileSize) {
+                throw new IOException(binaryFilePath + " has a directory of " + iceSheets + " sheets that does not fit in the file");
+            }
+
+            IceSheetStore store = new IceSheetStore(iceSheets, true);
+            ByteBuffer directory = null;
+
+            // Map the cells of every sheet straight from its directory entry, in chunks of at most CHUNK_CELLS.
+            for (int iceSheet = 0; iceSheet < iceSheets; iceSheet++) {
+                // The directory itself is mapped a window of entries at a time.
+                int entry = (iceSheet % DIRECTORY_WINDOW_ENTRIES) * DIRECTORY_ENTRY_BYTES;
+                if (entry == 0) {
+                    int windowEntries = Math.min(DIRECTORY_WINDOW_ENTRIES, iceSheets - iceSheet);
+                    directory = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + (long) iceSheet * DIRECTORY_ENTRY_BYTES,
+                            (long) windowEntries * DIRECTORY_ENTRY_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                }
+                long offset = directory.getLong(entry);
+                int rows = directory.getInt(entry + 8);
+                int columns = directory.getInt(entry + 12);
+                long cells = (long) rows * columns;
+                if (rows < 0 || columns < 0 || offset < cellsStart || offset > fileSize
+                        || cells > (fileSize - offset) / Integer.BYTES) {
+                    throw new IOException(binaryFilePath + " has a bad directory entry for sheet " + iceSheet + ": "
+                            + rows + "x" + columns + " cells at byte " + offset);
+                }
+
+                IntBuffer[] chunks = new IntBuffer[IceSheetStore.chunkCount(cells)];
+                for (int chunk = 0; chunk < chunks.length; chunk++) {
+                    long firstCell = (long) chunk * IceSheetStore.CHUNK_CELLS;
+                    long chunkCells = Math.min(IceSheetStore.CHUNK_CELLS, cells - firstCell);
+                    chunks[chunk] = channel.map(FileChannel.MapMode.READ_ONLY, offset + firstCell * Integer.BYTES, chunkCells * Integer.BYTES)
+                            .order(ByteOrder.LITTLE_ENDIAN)
+                            .asIntBuffer();
+                }
+                store.putSheet(iceSheet, rows, columns, chunks);
+            }
+            return store;
+        }
+        catch (IOException exception) {
+            // Print an error message if the file is missing or malformed.
+            System.out.println(exception.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Writes everything in the buffer to the channel and clears the buffer.
+     */
+    private static void writeFully(FileChannel output, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            output.write(buffer);
+        }
+        buffer.clear();
+    }
+}
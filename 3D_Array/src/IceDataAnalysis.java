@@ -1,7 +1,9 @@
 import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
-import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * The IceDataAnalysis class handles the analysis of ice sheet data from a text file.
@@ -16,95 +18,254 @@ public class IceDataAnalysis {
      * This method reads the ice sheet data from a file, identifies weak spots and cracks,
      * and prints the results.
      *
-     * @param args unused.
+     * @param args optional path of the ice sheet text or binary file (./ICESHEETS_F24.TXT by default), and
+     *             --parallel[=threads] to analyze the sheets on several cores, or
+     *             --streaming to analyze each sheet while the rest of the file is still being parsed,
+     *             --tiled[=megabytes] to read each sheet in strips of rows that fit in the given memory,
+     *             --compressed to hold the sheets dictionary-encoded and bit-packed while they are analyzed,
+     *             --backend=fused|bitset|vector to choose the kernel that finds the cracks,
+     *             --rules=maximum=200,weak=50,crack=10,connectivity=8 to detect with other rules,
+     *             which cannot be combined with the bitset or vector backend,
+     *             --output=file with --format=text|csv|binary to write the report to a file,
+     *             --metrics=file to write the metrics of the run to a file instead of the standard error,
+     *             --top=K to list the K worst sheets by weak spots, cracks and crack fraction,
+     *             and --clusters[=weak] to also list the crack clusters of every sheet (with weak spots included),
+     *             which needs whole sheets in memory and so cannot be combined with --streaming, --tiled or --compressed.
+     *             With --batch the path is a directory or glob of files analyzed together, see IceBatchAnalysis,
+     *             and --serve starts a local server that keeps analyses in memory, see IceAnalysisServer.
      */
     public static void main(String[] args) {
 
-        long startms;
-        startms = System.currentTimeMillis();
+        // Analyze a whole directory of files in one JVM in batch mode
+        if (Arrays.asList(args).contains("--batch")){
+            IceBatchAnalysis.main(Arrays.stream(args).filter(arg -> !arg.equals("--batch")).toArray(String[]::new));
+            return;
+        }
 
-        // Convert the text file data into a 3D array of ice sheets using textDataToArray function
-        int[][][] iceDataArray = textDataToArray("./ICESHEETS_F24.TXT");
+        // Keep analyses in memory and answer queries over a loopback socket in server mode
+        if (Arrays.asList(args).contains("--serve")){
+            IceAnalysisServer.main(Arrays.stream(args).filter(arg -> !arg.equals("--serve")).toArray(String[]::new));
+            return;
+        }
 
-        // Ensure that the data was loaded successfully
-        assert iceDataArray != null;
+        // Record the time and memory of every phase, instead of only the total time
+        IceRunMetrics metrics = new IceRunMetrics();
+
+        // Read the command line options, the analysis is sequential unless a parallelism level or streaming is given
+        String textFilePath = "./ICESHEETS_F24.TXT";
+        int parallelism = 0;
+        boolean streaming = false;
+        boolean compressed = false;
+        long tileBudget = 0;
+        IceKernelBackend backend = IceKernelBackend.FUSED;
+        IceDetectionRules rules = IceDetectionRules.DEFAULT;
+        int clusters = 0;
+        SheetRanking ranking = null;
+        String outputPath = null;
+        String metricsPath = null;
+        IceReportWriter.Format format = IceReportWriter.Format.TEXT;
+        for (String arg : args){
+            if (arg.equals("--parallel")){
+                parallelism = Runtime.getRuntime().availableProcessors();
+            }
+            else if (arg.startsWith("--parallel=")){
+                parallelism = Integer.parseInt(arg.substring("--parallel=".length()));
+            }
+            else if (arg.equals("--streaming")){
+                streaming = true;
+            }
+            else if (arg.equals("--tiled")){
+                tileBudget = TiledIceAnalysis.DEFAULT_MEMORY_BUDGET;
+            }
+            else if (arg.startsWith("--tiled=")){
+                tileBudget = Long.parseLong(arg.substring("--tiled=".length())) << 20;
+            }
+            else if (arg.equals("--compressed")){
+                compressed = true;
+            }
+            else if (arg.startsWith("--backend=")){
+                backend = IceKernelBackend.valueOf(arg.substring("--backend=".length()).toUpperCase());
+            }
+            else if (arg.startsWith("--output=")){
+                outputPath = arg.substring("--output=".length());
+            }
+            else if (arg.startsWith("--metrics=")){
+                metricsPath = arg.substring("--metrics=".length());
+            }
+            else if (arg.startsWith("--format=")){
+                format = IceReportWriter.Format.valueOf(arg.substring("--format=".length()).toUpperCase());
+            }
+            else if (arg.startsWith("--rules=")){
+                rules = IceDetectionRules.parse(arg.substring("--rules=".length()));
+            }
+            else if (arg.startsWith("--top=")){
+                ranking = new SheetRanking(Integer.parseInt(arg.substring("--top=".length())));
+            }
+            else if (arg.equals("--clusters")){
+                clusters = 1;
+            }
+            else if (arg.equals("--clusters=weak")){
+                clusters = 2;
+            }
+            else {
+                textFilePath = arg;
+            }
+        }
 
-        // Get the weak spots information from the iceDataArray using weakSpots function
-        int[][][] weakSpotsResult = weakSpots(iceDataArray);
+        // Pick the kernel once both flags are read, so every phase of the run applies the same rules
+        IceKernel kernel;
+        try {
+            kernel = rules.kernelFor(backend);
+        }
+        catch (IllegalArgumentException exception){
+            System.out.println(exception.getMessage());
+            return;
+        }
 
-        // Calculate the cracks based on weak spots data and the original iceDataArray
-        int[][] crackResult = cracks(iceDataArray, weakSpotsResult);
+        // Clusters are labeled over whole sheets, which the streaming, tiled and compressed modes never hold
+        if (clusters > 0 && (streaming || tileBudget > 0 || compressed)){
+            System.out.println("--clusters cannot be combined with --streaming, --tiled or --compressed");
+            return;
+        }
 
-        System.out.println("PART A:");
-        // Print the number of weak spots on each sheet
-        for (int i = 0; i < weakSpotsResult[3][0].length; i++){
-            System.out.printf("Sheet %d has %d weak spots\n", i, weakSpotsResult[3][0][i]);
+        CrackReport crackResult;
+        CrackClusterReport[] clusterResult = null;
+        IceKernel timedKernel = metrics.timeSheets(kernel);
+
+        if (streaming || tileBudget > 0){
+            // Analyze each sheet while the rest of the file is still being parsed, keeping only a few sheets in memory,
+            // or in tiled mode only a few rows of one sheet
+            metrics.startPhase("parseAndScan");
+            StreamingIceAnalysis.ResultCollector collector = new StreamingIceAnalysis.ResultCollector();
+            SheetRanking streamingRanking = ranking;
+            StreamingIceAnalysis.SheetListener listener = streamingRanking == null ? collector : (iceSheet, weakSpots, sheetCracks) -> {
+                collector.sheetAnalyzed(iceSheet, weakSpots, sheetCracks);
+                streamingRanking.sheetAnalyzed(iceSheet, weakSpots, sheetCracks);
+            };
+            int analyzedSheets = tileBudget > 0
+                    ? new TiledIceAnalysis(tileBudget, timedKernel).analyze(textFilePath, listener)
+                    : new StreamingIceAnalysis(StreamingIceAnalysis.DEFAULT_QUEUE_CAPACITY, timedKernel).analyze(textFilePath, listener);
+            if (analyzedSheets < 0){
+                return;
+            }
+            crackResult = collector.getReport();
+            metrics.endPhase(metrics.getScannedCells(), new File(textFilePath).length());
         }
-        // Print the total weak spots across all sheets
-        System.out.printf("\nTotal weak Spots on all Sheets = %d\n", weakSpotsResult[0][0][0]);
-        // Print the sheet with the highest number of weak spots
-        System.out.printf("Sheet %d has the highest number of weak Spots = %d\n", weakSpotsResult[2][0][0], weakSpotsResult[1][0][0]);
-
-        System.out.println("\nPART B:");
-        // Print the detected cracks and their locations
-        for (int i = 0; i < crackResult.length; i++){
-            System.out.printf("CRACK DETECTED @ [Sheet[%d](%d,%d)]\n", crackResult[i][0], crackResult[i][1], crackResult[i][2]);
+        else if (compressed){
+            // Compress each sheet as it is read, then analyze the packed sheets without decoding them
+            metrics.startPhase("parseAndCompress");
+            CompressedSheetStore compressedStore = CompressedSheetStore.load(textFilePath);
+            if (compressedStore == null){
+                return;
+            }
+            metrics.endPhase(compressedStore.cellCount(), new File(textFilePath).length());
+
+            metrics.startPhase("scan");
+            crackResult = compressedStore.analyze(rules);
+            metrics.endPhase(compressedStore.cellCount(), 0);
+            if (ranking != null){
+                ranking.offerAll(crackResult);
+            }
         }
+        else {
+            IceSheetStore iceDataStore;
+            if (IceBinaryFormat.isBinary(textFilePath)){
+                // Map the sheets of a binary file in place, there is nothing to parse
+                metrics.startPhase("load");
+                iceDataStore = IceBinaryFormat.open(textFilePath);
+                metrics.endPhase(iceDataStore == null ? 0 : iceDataStore.cellCount(), 0);
+            }
+            else {
+                // Load the text file data into a store of contiguous ice sheets using the memory-mapped loader
+                metrics.startPhase("parse");
+                IceDataLoader loader = new IceDataLoader(textFilePath);
+                iceDataStore = loader.loadStore(false);
+                metrics.endPhase(iceDataStore == null ? 0 : iceDataStore.cellCount(), loader.getBytesRead());
+            }
 
-        System.out.println("\nSUMMARY");
-        // Print the total number of weak spots that have cracked
-        System.out.printf("The total number of weak spots that have cracked = %d\n", crackResult.length);
-        // Print the fraction of weak spots that turned into cracks
-        System.out.printf("The fraction of weak spots that are also cracks is %.3f", (double)crackResult.length/weakSpotsResult[0][0][0]);
+            // Ensure that the data was loaded successfully
+            assert iceDataStore != null;
 
-        long endms = System.currentTimeMillis();
-        System.out.printf("\n\nTime = %d ms\n", endms - startms);
+            // Find the weak spots and cracks of every sheet in one pass of the chosen kernel over the iceDataStore,
+            // splitting the sheets and large sheets' row bands over several cores in parallel mode
+            metrics.startPhase("scan");
+            if (parallelism > 0){
+                ParallelIceAnalysis parallelAnalysis = new ParallelIceAnalysis(parallelism, ParallelIceAnalysis.DEFAULT_BAND_CELLS, timedKernel);
+                crackResult = parallelAnalysis.analyze(iceDataStore);
+                parallelAnalysis.shutdown();
+            }
+            else {
+                crackResult = timedKernel.analyze(iceDataStore);
+            }
+            metrics.endPhase(metrics.getScannedCells(), 0);
+
+            // Rank the sheets from their counts, streaming mode ranks each sheet as soon as it is analyzed
+            if (ranking != null){
+                ranking.offerAll(crackResult);
+            }
+
+            // Group the cracks of every sheet into clusters of touching cells
+            if (clusters > 0){
+                metrics.startPhase("clusters");
+                CrackClusterLabeler labeler = new CrackClusterLabeler(new ForkJoinPool(Math.max(1, parallelism)),
+                        ParallelIceAnalysis.DEFAULT_BAND_CELLS, rules);
+                clusterResult = labeler.labelAll(iceDataStore, clusters == 2);
+                labeler.shutdown();
+                metrics.endPhase(iceDataStore.cellCount(), 0);
+            }
+        }
+
+        metrics.startPhase("output");
+
+        // Write the report through one large buffer, to the standard output unless an output file is given
+        try (IceReportWriter writer = outputPath == null
+                ? IceReportWriter.toStandardOutput(format)
+                : IceReportWriter.open(Path.of(outputPath), format)){
+            writer.write(crackResult);
+        }
+        catch (IOException exception){
+            // Print an error message if the report cannot be written
+            System.out.println(exception.getMessage());
+            return;
+        }
+        metrics.endPhase(0, 0);
+
+        // Print the worst sheets by each measure
+        if (ranking != null){
+            printRanking(ranking);
+        }
+
+        // Print the number of clusters of every sheet and the largest one
+        if (clusterResult != null){
+            printClusters(clusterResult);
+        }
+
+        // Print the time and memory of every phase as one machine-readable line, away from the standard output
+        // so that a csv or binary report written there stays intact
+        if (metricsPath == null){
+            System.err.printf("\nMetrics = %s\n", metrics.toJson());
+        }
+        else {
+            try {
+                Files.writeString(Path.of(metricsPath), metrics.toJson() + "\n");
+            }
+            catch (IOException exception){
+                // Print an error message if the metrics cannot be written
+                System.out.println(exception.getMessage());
+            }
+        }
     }
 
     /**
      * Reads ice sheet data from a text file and converts it into a 3D array.
+     * The file is parsed byte by byte from a memory-mapped view by IceDataLoader.
      *
      * @param textFilePath The path to the text file containing the ice sheet data.
      * @return A 3D array representing the ice sheets data, or null if an error occurs.
      */
     public static int[][][] textDataToArray(String textFilePath){
-        try {
-            // Create a new File object using the provided path.
-            File textFile = new File(textFilePath);
-            // Create a Scanner object to read the file.
-            Scanner reader = new Scanner(textFile);
-
-            // Read the number of ice sheets.
-            int iceSheets = reader.nextInt();
-            // Initialize a 3D array to store the data for all ice sheets.
-            int[][][] iceDataArray = new int[iceSheets][][];
-
-            // Loop through each ice sheet.
-            for (int iceSheet = 0; iceSheet < iceSheets; iceSheet++){
-                // Read the number of rows and columns for this ice sheet.
-                int rows = reader.nextInt();
-                int columns = reader.nextInt();
-
-                // Initialize a 2D array for the current ice sheet.
-                iceDataArray[iceSheet] = new int[rows][columns];
-
-                // Loop through each cell of the ice sheet and store the data.
-                for (int row = 0; row < rows; row++){
-                    for(int column = 0; column < columns; column++){
-                        // Store the data value for each cell.
-                        iceDataArray[iceSheet][row][column] = reader.nextInt();
-                    }
-                }
-            }
-            // Return the populated 3D array.
-            return iceDataArray;
-        }
-        catch (FileNotFoundException exception) {
-            // Print an error message if the file is not found.
-            System.out.println(exception.getMessage());
-        }
-        // Return null if an exception occurs.
-        return null;
+        // Parse the file with the memory-mapped loader instead of a Scanner.
+        return new IceDataLoader(textFilePath).load();
     }
 
     /**
@@ -115,84 +276,151 @@ public class IceDataAnalysis {
      * @return A 3D array containing the total number of weak spots, the sheet number with the most weak spots, the number of weak spots on each sheet, and a 2D array of weak spot locations.
      */
     public static int[][][] weakSpots(int[][][] dataArray){
+        return weakSpots(IceSheetStore.fromArray(dataArray));
+    }
 
-        // Initialize variables to store total weak spots, current sheet's weak spots,
-        // maximum weak spots on any sheet, and the sheet number with the most weak spots.
-        int totalWeakSpots = 0;
-        int currentSheetTotalWeakSpots = 0;
-        int maximumTotalWeakSpotsOnSheet = 0;
-        int maximumTotalWeakSpotsSheetNumber = 0;
+    /**
+     * Analyzes the ice sheets of an IceSheetStore to find weak spots.
+     * Weak spots are locations where the value is less than or equal to 200 and divisible by 50.
+     *
+     * @param dataStore The store containing ice sheet data.
+     * @return A 3D array containing the total number of weak spots, the sheet number with the most weak spots, the number of weak spots on each sheet, and a 2D array of weak spot locations.
+     */
+    public static int[][][] weakSpots(IceSheetStore dataStore){
+
+        WeakSpotReport report = findWeakSpots(dataStore);
+        LocationList locations = report.getLocations();
+
+        // Rebuild the per-sheet location arrays: the dimensions of the sheet first,
+        // then the row and column of each weak spot at even and odd positions.
+        int[][] weakSpotsLocationsArray = new int[report.getSheetCount()][];
+        int[] weakSpotsPerSheet = new int[report.getSheetCount()];
+        int location = 0;
+        for(int iceSheet = 0; iceSheet < report.getSheetCount(); iceSheet++){
+            weakSpotsPerSheet[iceSheet] = report.getWeakSpots(iceSheet);
+            weakSpotsLocationsArray[iceSheet] = new int[(weakSpotsPerSheet[iceSheet] * 2) + 2];
+            weakSpotsLocationsArray[iceSheet][0] = dataStore.rows(iceSheet);
+            weakSpotsLocationsArray[iceSheet][1] = dataStore.columns(iceSheet);
+
+            for(int i = 2; i < weakSpotsLocationsArray[iceSheet].length; i += 2){
+                weakSpotsLocationsArray[iceSheet][i] = locations.row(location);
+                weakSpotsLocationsArray[iceSheet][i + 1] = locations.column(location);
+                location++;
+            }
+        }
 
-        // Array to store the number of weak spots on each sheet.
-        int[] maximumTotalWeakSpotsOnSheetArray = new int[dataArray.length];
-        // 2D array to store the weak spots locations.
-        int[][] weakSpotsLocationsArray = new int[dataArray.length][];
+        // Return the result as a 3D array containing:
+        // 1. Total weak spots.
+        // 2. Maximum weak spots on a single sheet.
+        // 3. The sheet number with the most weak spots.
+        // 4. Array of weak spots per sheet.
+        // 5. 2D array of weak spots locations.
+        return new int[][][]{
+                {new int[]{(int) report.getTotalWeakSpots()}},
+                {new int[]{report.getMaximumWeakSpots()}},
+                {new int[]{report.getMaximumWeakSpotsSheet()}},
+                {weakSpotsPerSheet},
+                weakSpotsLocationsArray
+        };
+    }
 
-        // Loop through each ice sheet in given 3D array (dataArray).
-        for(int iceSheet = 0; iceSheet < dataArray.length; iceSheet++){
+    /**
+     * Analyzes the ice sheets of an IceSheetStore to find weak spots, and returns them as a report.
+     * Weak spots are locations where the value is less than or equal to 200 and divisible by 50.
+     * Each sheet is scanned as one contiguous row-major block, and the locations are collected
+     * into a LocationList that only grows as weak spots are found.
+     *
+     * @param dataStore The store containing ice sheet data.
+     * @return The weak spot counts, total, maximum sheet and locations.
+     */
+    public static WeakSpotReport findWeakSpots(IceSheetStore dataStore){
 
-            // Initialize the weak spots location array for the current sheet.
-            // The array size is twice the number of cells (row * column * 2) + 2 to include dimensions(number of rows and columns for current ice sheet).
-            // Assuming the worst-case scenario where every cell is a weak spot, row numbers will be stored at even positions and column numbers at odd positions in the weakSpotsLocationsArray[iceSheet].
-            weakSpotsLocationsArray[iceSheet] = new int[((dataArray[iceSheet].length) * (dataArray[iceSheet][0].length) * 2 ) + 2];
+        // Array to store the number of weak spots on each sheet, and list of the weak spots locations.
+        int[] weakSpotsPerSheet = new int[dataStore.sheetCount()];
+        LocationList locations = new LocationList();
+        // Row buffer used when the sheets are kept outside the heap.
+        int[] rowBuffer = new int[0];
 
-            // Store the dimensions of the ice sheet (rows and columns) at the start of the array.
-            weakSpotsLocationsArray[iceSheet][0] = dataArray[iceSheet].length;
-            weakSpotsLocationsArray[iceSheet][1] = dataArray[iceSheet][0].length;
+        // Loop through each ice sheet in the given store (dataStore).
+        for(int iceSheet = 0; iceSheet < dataStore.sheetCount(); iceSheet++){
 
-            // Initialize the index for the weak spots location array (start from position 1, next data will be stored after increasing counter since, first two position is used for dimensions).
-            int weakSpotsLocationsArrayIndex = 1;
+            int rows = dataStore.rows(iceSheet);
+            int columns = dataStore.columns(iceSheet);
+            int[] cells = dataStore.heapCells(iceSheet);
+            int currentSheetTotalWeakSpots = 0;
 
             // Loop through each row of the current ice sheet.
-            for(int row = 0; row < dataArray[iceSheet].length; row++){
+            for(int row = 0; row < rows; row++){
+
+                // Find the row in the heap block, or copy it out of the off-heap buffer.
+                int[] rowCells = cells;
+                int rowStart = row * columns;
+                if (cells == null) {
+                    if (rowBuffer.length < columns) {
+                        rowBuffer = new int[columns];
+                    }
+                    dataStore.copyRow(iceSheet, row, rowBuffer);
+                    rowCells = rowBuffer;
+                    rowStart = 0;
+                }
+
                 // Loop through each column in the current row.
-                for(int column = 0; column < dataArray[iceSheet][row].length; column++){
+                for(int column = 0; column < columns; column++){
+                    int value = rowCells[rowStart + column];
 
                     // Check if the current cell is a weak spot (value <= 200 and divisible by 50).
-                    if ((dataArray[iceSheet][row][column] <= 200) && (dataArray[iceSheet][row][column] % 50 == 0)){
-                        // Increment total weak spots counter.
-                        totalWeakSpots++;
-
-                        // Update the index and store the row and column of the weak spot.
+                    if ((value <= 200) && (value % 50 == 0)){
                         currentSheetTotalWeakSpots++;
-                        weakSpotsLocationsArrayIndex++;
-                        weakSpotsLocationsArray[iceSheet][weakSpotsLocationsArrayIndex] = row;
-                        weakSpotsLocationsArrayIndex++;
-                        weakSpotsLocationsArray[iceSheet][weakSpotsLocationsArrayIndex] = column;
+                        locations.add(iceSheet, row, column);
                     }
                 }
-
             }
-            // Resize the weak spots locations array for the current sheet to the actual number of weak spots.
-            weakSpotsLocationsArray[iceSheet] = Arrays.copyOf(weakSpotsLocationsArray[iceSheet], weakSpotsLocationsArrayIndex + 1);
+            // Store the weak spots count for the current sheet in the array.
+            weakSpotsPerSheet[iceSheet] = currentSheetTotalWeakSpots;
+        }
+        return new WeakSpotReport(weakSpotsPerSheet, locations);
+    }
+
+    /**
+     * Identifies the cracks among the weak spots of a report.
+     * A crack is detected if any of the eight neighboring spots of a weak spot has a value divisible by 10.
+     * As in cracks, sheets with a single row or a single column have no cracks.
+     *
+     * @param dataStore The store containing ice sheet data.
+     * @param weakSpots The weak spot report of the same store, with its locations.
+     * @return The cracks, in sheet, row and column order.
+     */
+    public static CrackReport findCracks(IceSheetStore dataStore, WeakSpotReport weakSpots){
+
+        LocationList cracks = new LocationList();
+        LocationList locations = weakSpots.getLocations();
 
-            // If the current sheet has more weak spots than the previous maximum, update the max values.
-            if (currentSheetTotalWeakSpots > maximumTotalWeakSpotsOnSheet){
-                maximumTotalWeakSpotsOnSheet = currentSheetTotalWeakSpots;
-                // Store the sheet number with the most weak spots.
-                maximumTotalWeakSpotsSheetNumber = iceSheet;
+        for (int location = 0; location < locations.size(); location++){
+            int iceSheet = locations.sheet(location);
+            int row = locations.row(location);
+            int column = locations.column(location);
+
+            int rows = dataStore.rows(iceSheet);
+            int columns = dataStore.columns(iceSheet);
+            if (rows < 2 || columns < 2){
+                continue;
             }
-            // Store the weak spots count for the current sheet in the array.
-            maximumTotalWeakSpotsOnSheetArray[iceSheet] = currentSheetTotalWeakSpots;
 
-            // Reset the weak spots counter for the next sheet.
-            currentSheetTotalWeakSpots = 0;
+            // Check the neighbours inside the sheet, skipping the weak spot itself.
+            boolean cracked = false;
+            for (int neighbourRow = Math.max(0, row - 1); neighbourRow <= Math.min(rows - 1, row + 1) && !cracked; neighbourRow++){
+                for (int neighbourColumn = Math.max(0, column - 1); neighbourColumn <= Math.min(columns - 1, column + 1); neighbourColumn++){
+                    if ((neighbourRow != row || neighbourColumn != column) && dataStore.get(iceSheet, neighbourRow, neighbourColumn) % 10 == 0){
+                        cracked = true;
+                        break;
+                    }
+                }
+            }
+            if (cracked){
+                cracks.add(iceSheet, row, column);
+            }
         }
-        //  System.out.println(Arrays.deepToString(weakSpotsLocationsArray));
-
-        // Return the result as a 3D array containing:
-        // 1. Total weak spots.
-        // 2. Maximum weak spots on a single sheet.
-        // 3. The sheet number with the most weak spots.
-        // 4. Array of weak spots per sheet.
-        // 5. 2D array of weak spots locations.
-        return new int[][][]{
-                {new int[]{totalWeakSpots}},
-                {new int[]{maximumTotalWeakSpotsOnSheet}},
-                {new int[]{maximumTotalWeakSpotsSheetNumber}},
-                {maximumTotalWeakSpotsOnSheetArray},
-                weakSpotsLocationsArray
-        };
+        return new CrackReport(weakSpots, cracks);
     }
 
     /**
@@ -204,6 +432,18 @@ public class IceDataAnalysis {
      * @return A 2D array listing the cracks detected with sheet, row, and column coordinates.
      */
     public static int[][] cracks(int[][][] dataArray, int[][][] weakSpotsArray){
+        return cracks(IceSheetStore.fromArray(dataArray), weakSpotsArray);
+    }
+
+    /**
+     * Identifies cracks in the ice sheets of an IceSheetStore based on weak spots.
+     * A crack is detected if any neighboring spot of a weak spot has a value divisible by 10.
+     *
+     * @param dataStore The store containing ice sheet data.
+     * @param weakSpotsArray The array containing weak spot locations.
+     * @return A 2D array listing the cracks detected with sheet, row, and column coordinates.
+     */
+    public static int[][] cracks(IceSheetStore dataStore, int[][][] weakSpotsArray){
 
         // Initialize the number of cracks and create a 2D array with the length of weak spots,
         // assuming the worst-case scenario where every weak spot results in a crack.
@@ -236,9 +476,9 @@ public class IceDataAnalysis {
                     // Check for a crack in the top-left corner (0,0)
                     if(rowLocation == 0 && columnLocation == 0){
 
-                        int right = dataArray[iceSheet][rowLocation][columnLocation + 1];
-                        int bottomRight = dataArray[iceSheet][rowLocation + 1][columnLocation + 1];
-                        int bottom = dataArray[iceSheet][rowLocation + 1][columnLocation];
+                        int right = dataStore.get(iceSheet, rowLocation, columnLocation + 1);
+                        int bottomRight = dataStore.get(iceSheet, rowLocation + 1, columnLocation + 1);
+                        int bottom = dataStore.get(iceSheet, rowLocation + 1, columnLocation);
 
                         if(right % 10 == 0 || bottomRight % 10 == 0 || bottom % 10 == 0){
                             cracksArray[numberOfCracks][0] = iceSheet;
@@ -251,9 +491,9 @@ public class IceDataAnalysis {
                     // Check for a crack in the top-right corner (0, max column)
                     else if(rowLocation == 0 && columnLocation == maximumColumnIndex) {
 
-                        int bottom = dataArray[iceSheet][rowLocation + 1][columnLocation];
-                        int left = dataArray[iceSheet][rowLocation][columnLocation - 1];
-                        int bottomLeft = dataArray[iceSheet][rowLocation + 1][columnLocation - 1];
+                        int bottom = dataStore.get(iceSheet, rowLocation + 1, columnLocation);
+                        int left = dataStore.get(iceSheet, rowLocation, columnLocation - 1);
+                        int bottomLeft = dataStore.get(iceSheet, rowLocation + 1, columnLocation - 1);
 
                         if(left % 10 == 0 || bottomLeft % 10 == 0 || bottom % 10 == 0){
                             cracksArray[numberOfCracks][0] = iceSheet;
@@ -266,9 +506,9 @@ public class IceDataAnalysis {
                     // Check for a crack in the bottom-left corner (max row, 0)
                     else if(rowLocation == maximumRowIndex && columnLocation == 0){
 
-                        int right = dataArray[iceSheet][rowLocation][columnLocation + 1];
-                        int top = dataArray[iceSheet][rowLocation - 1][columnLocation];
-                        int topRight = dataArray[iceSheet][rowLocation - 1][columnLocation + 1];
+                        int right = dataStore.get(iceSheet, rowLocation, columnLocation + 1);
+                        int top = dataStore.get(iceSheet, rowLocation - 1, columnLocation);
+                        int topRight = dataStore.get(iceSheet, rowLocation - 1, columnLocation + 1);
 
                         if(right % 10 == 0 || topRight % 10 == 0 || top % 10 == 0){
                             cracksArray[numberOfCracks][0] = iceSheet;
@@ -281,9 +521,9 @@ public class IceDataAnalysis {
                     // Check for a crack in the bottom-right corner (max row, max column)
                     else if(rowLocation == maximumRowIndex && columnLocation == maximumColumnIndex) {
 
-                        int top = dataArray[iceSheet][rowLocation - 1][columnLocation];
-                        int topLeft = dataArray[iceSheet][rowLocation - 1][columnLocation - 1];
-                        int left = dataArray[iceSheet][rowLocation][columnLocation - 1];
+                        int top = dataStore.get(iceSheet, rowLocation - 1, columnLocation);
+                        int topLeft = dataStore.get(iceSheet, rowLocation - 1, columnLocation - 1);
+                        int left = dataStore.get(iceSheet, rowLocation, columnLocation - 1);
 
                         if(left % 10 == 0 || topLeft % 10 == 0 || top % 10 == 0){
                             cracksArray[numberOfCracks][0] = iceSheet;
@@ -296,11 +536,11 @@ public class IceDataAnalysis {
                     // Check for a crack along the top edge (row 0, but not corners)
                     else if(rowLocation == 0) {
 
-                        int left = dataArray[iceSheet][rowLocation][columnLocation - 1];
-                        int right = dataArray[iceSheet][rowLocation][columnLocation + 1];
-                        int bottom = dataArray[iceSheet][rowLocation + 1][columnLocation];
-                        int bottomLeft = dataArray[iceSheet][rowLocation + 1][columnLocation - 1];
-                        int bottomRight = dataArray[iceSheet][rowLocation + 1][columnLocation + 1];
+                        int left = dataStore.get(iceSheet, rowLocation, columnLocation - 1);
+                        int right = dataStore.get(iceSheet, rowLocation, columnLocation + 1);
+                        int bottom = dataStore.get(iceSheet, rowLocation + 1, columnLocation);
+                        int bottomLeft = dataStore.get(iceSheet, rowLocation + 1, columnLocation - 1);
+                        int bottomRight = dataStore.get(iceSheet, rowLocation + 1, columnLocation + 1);
 
 
                         if(left % 10 == 0 || right % 10 == 0 || bottom % 10 == 0 || bottomLeft % 10 == 0 || bottomRight % 10 == 0){
@@ -314,11 +554,11 @@ public class IceDataAnalysis {
                     // Check for a crack along the bottom edge (max row, but not corners)
                     else if(rowLocation == maximumRowIndex) {
 
-                        int left = dataArray[iceSheet][rowLocation][columnLocation - 1];
-                        int right = dataArray[iceSheet][rowLocation][columnLocation + 1];
-                        int top = dataArray[iceSheet][rowLocation - 1][columnLocation];
-                        int topLeft = dataArray[iceSheet][rowLocation - 1][columnLocation - 1];
-                        int topRight = dataArray[iceSheet][rowLocation - 1][columnLocation + 1];
+                        int left = dataStore.get(iceSheet, rowLocation, columnLocation - 1);
+                        int right = dataStore.get(iceSheet, rowLocation, columnLocation + 1);
+                        int top = dataStore.get(iceSheet, rowLocation - 1, columnLocation);
+                        int topLeft = dataStore.get(iceSheet, rowLocation - 1, columnLocation - 1);
+                        int topRight = dataStore.get(iceSheet, rowLocation - 1, columnLocation + 1);
 
                         if(left % 10 == 0 || right % 10 == 0 || top % 10 == 0 || topLeft % 10 == 0 || topRight % 10 == 0){
                             cracksArray[numberOfCracks][0] = iceSheet;
@@ -331,11 +571,11 @@ public class IceDataAnalysis {
                     // Check for a crack along the left edge (column 0, but not corners)
                     else if(columnLocation == 0) {
 
-                        int bottom = dataArray[iceSheet][rowLocation + 1][columnLocation];
-                        int right = dataArray[iceSheet][rowLocation][columnLocation + 1];
-                        int top = dataArray[iceSheet][rowLocation - 1][columnLocation];
-                        int topRight = dataArray[iceSheet][rowLocation - 1][columnLocation + 1];
-                        int bottomRight = dataArray[iceSheet][rowLocation + 1][columnLocation + 1];
+                        int bottom = dataStore.get(iceSheet, rowLocation + 1, columnLocation);
+                        int right = dataStore.get(iceSheet, rowLocation, columnLocation + 1);
+                        int top = dataStore.get(iceSheet, rowLocation - 1, columnLocation);
+                        int topRight = dataStore.get(iceSheet, rowLocation - 1, columnLocation + 1);
+                        int bottomRight = dataStore.get(iceSheet, rowLocation + 1, columnLocation + 1);
 
                         if(bottom % 10 == 0 || right % 10 == 0 || top % 10 == 0 || bottomRight % 10 == 0 || topRight % 10 == 0){
                             cracksArray[numberOfCracks][0] = iceSheet;
@@ -348,11 +588,11 @@ public class IceDataAnalysis {
                     // Check for a crack along the right edge (max column, but not corners)
                     else if(columnLocation == maximumColumnIndex) {
 
-                        int bottom = dataArray[iceSheet][rowLocation + 1][columnLocation];
-                        int top = dataArray[iceSheet][rowLocation - 1][columnLocation];
-                        int left = dataArray[iceSheet][rowLocation][columnLocation - 1];
-                        int topLeft = dataArray[iceSheet][rowLocation - 1][columnLocation - 1];
-                        int bottomLeft = dataArray[iceSheet][rowLocation + 1][columnLocation - 1];
+                        int bottom = dataStore.get(iceSheet, rowLocation + 1, columnLocation);
+                        int top = dataStore.get(iceSheet, rowLocation - 1, columnLocation);
+                        int left = dataStore.get(iceSheet, rowLocation, columnLocation - 1);
+                        int topLeft = dataStore.get(iceSheet, rowLocation - 1, columnLocation - 1);
+                        int bottomLeft = dataStore.get(iceSheet, rowLocation + 1, columnLocation - 1);
 
                         if(bottom % 10 == 0 || left % 10 == 0 || top % 10 == 0 || bottomLeft % 10 == 0 || topLeft % 10 == 0){
                             cracksArray[numberOfCracks][0] = iceSheet;
@@ -365,14 +605,14 @@ public class IceDataAnalysis {
                     // Check for cracks in the middle area
                     else {
 
-                        int top = dataArray[iceSheet][rowLocation - 1][columnLocation];
-                        int bottom = dataArray[iceSheet][rowLocation + 1][columnLocation];
-                        int left = dataArray[iceSheet][rowLocation][columnLocation - 1];
-                        int topLeft = dataArray[iceSheet][rowLocation - 1][columnLocation - 1];
-                        int bottomLeft = dataArray[iceSheet][rowLocation + 1][columnLocation - 1];
-                        int right = dataArray[iceSheet][rowLocation][columnLocation + 1];
-                        int topRight = dataArray[iceSheet][rowLocation - 1][columnLocation + 1];
-                        int bottomRight = dataArray[iceSheet][rowLocation + 1][columnLocation + 1];
+                        int top = dataStore.get(iceSheet, rowLocation - 1, columnLocation);
+                        int bottom = dataStore.get(iceSheet, rowLocation + 1, columnLocation);
+                        int left = dataStore.get(iceSheet, rowLocation, columnLocation - 1);
+                        int topLeft = dataStore.get(iceSheet, rowLocation - 1, columnLocation - 1);
+                        int bottomLeft = dataStore.get(iceSheet, rowLocation + 1, columnLocation - 1);
+                        int right = dataStore.get(iceSheet, rowLocation, columnLocation + 1);
+                        int topRight = dataStore.get(iceSheet, rowLocation - 1, columnLocation + 1);
+                        int bottomRight = dataStore.get(iceSheet, rowLocation + 1, columnLocation + 1);
 
                         if(bottom % 10 == 0 || left % 10 == 0 || top % 10 == 0 || bottomLeft % 10 == 0 || topLeft % 10 == 0 || right % 10 == 0 || bottomRight % 10 == 0 || topRight % 10 == 0){
                             cracksArray[numberOfCracks][0] = iceSheet;
@@ -388,4 +628,46 @@ public class IceDataAnalysis {
         cracksArray = Arrays.copyOf(cracksArray, numberOfCracks);
         return cracksArray;
     }
-}
\ No newline at end of file
+
+    /**
+     * Prints the worst sheets by weak spots, by cracks and by crack fraction, the worst first.
+     *
+     * @param ranking The ranking of the analyzed sheets.
+     */
+    public static void printRanking(SheetRanking ranking){
+        System.out.printf("\nTOP %d SHEETS\n", ranking.getCapacity());
+        for (SheetRanking.Measure measure : SheetRanking.Measure.values()){
+            StringBuilder line = new StringBuilder("By ").append(measure.name().toLowerCase().replace('_', ' ')).append(':');
+            for (SheetRanking.RankedSheet sheet : ranking.getTop(measure)){
+                line.append(switch (measure){
+                    case WEAK_SPOTS -> String.format(" sheet %d (%d)", sheet.getSheet(), sheet.getWeakSpots());
+                    case CRACKS -> String.format(" sheet %d (%d)", sheet.getSheet(), sheet.getCracks());
+                    case CRACK_FRACTION -> String.format(" sheet %d (%.3f)", sheet.getSheet(), sheet.getCrackFraction());
+                });
+            }
+            System.out.println(line);
+        }
+    }
+
+    /**
+     * Prints the number of crack clusters of every ice sheet, and the size, bounding box and centroid
+     * of the largest cluster of each sheet.
+     *
+     * @param clusterReports The clusters of every sheet, in sheet order.
+     */
+    public static void printClusters(CrackClusterReport[] clusterReports){
+        System.out.println("\nCLUSTERS");
+        for (CrackClusterReport clusters : clusterReports){
+            int largest = clusters.getLargestCluster();
+            if (largest < 0){
+                System.out.printf("Sheet %d has no crack clusters\n", clusters.getSheet());
+                continue;
+            }
+            System.out.printf("Sheet %d has %d crack clusters, the largest has %d cells in rows %d-%d and columns %d-%d, centroid (%.2f,%.2f)\n",
+                    clusters.getSheet(), clusters.getClusterCount(), clusters.getSize(largest),
+                    clusters.getMinimumRow(largest), clusters.getMaximumRow(largest),
+                    clusters.getMinimumColumn(largest), clusters.getMaximumColumn(largest),
+                    clusters.getCentroidRow(largest), clusters.getCentroidColumn(largest));
+        }
+    }
+}
@@ -0,0 +1,128 @@
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * The IceDataLoader class loads an ice sheet text file into a 3D array using the
+ * memory-mapped IceDataTokenizer instead of a Scanner. The file format is unchanged:
+ * the number of ice sheets, followed by the rows, columns and cell values of every sheet.
+ * The loader also records how many bytes it parsed, so the parse throughput can be reported
+ * by IceRunMetrics.
+ * Created on October 17, 2026
+ * @author Maharshi Patel
+ */
+public class IceDataLoader {
+
+    private final String textFilePath;
+
+    // Bytes parsed by the last load.
+    private long bytesRead;
+
+    /**
+     * Creates a loader for the given ice sheet text file.
+     *
+     * @param textFilePath The path to the text file containing the ice sheet data.
+     */
+    public IceDataLoader(String textFilePath) {
+        this.textFilePath = textFilePath;
+    }
+
+    /**
+     * Reads the ice sheet data from the text file and converts it into a 3D array.
+     *
+     * @return A 3D array representing the ice sheets data, or null if an error occurs.
+     */
+    public int[][][] load() {
+        try (IceDataTokenizer tokenizer = new IceDataTokenizer(Path.of(textFilePath))) {
+            // Read the number of ice sheets.
+            int iceSheets = tokenizer.nextInt();
+            // Initialize a 3D array to store the data for all ice sheets.
+            int[][][] iceDataArray = new int[iceSheets][][];
+
+            // Loop through each ice sheet.
+            for (int iceSheet = 0; iceSheet < iceSheets; iceSheet++) {
+                // Read the number of rows and columns for this ice sheet.
+                int rows = tokenizer.nextInt();
+                int columns = tokenizer.nextInt();
+
+                // Initialize a 2D array for the current ice sheet and store the data of each cell.
+                int[][] sheet = new int[rows][columns];
+                for (int row = 0; row < rows; row++) {
+                    int[] sheetRow = sheet[row];
+                    for (int column = 0; column < columns; column++) {
+                        sheetRow[column] = tokenizer.nextInt();
+                    }
+                }
+                iceDataArray[iceSheet] = sheet;
+            }
+
+            bytesRead = tokenizer.position();
+            return iceDataArray;
+        }
+        catch (IOException exception) {
+            // Print an error message if the file is missing or malformed.
+            System.out.println(exception.getMessage());
+        }
+        // Return null if an exception occurs.
+        return null;
+    }
+
+    /**
+     * Reads the ice sheet data from the text file into an IceSheetStore,
+     * with one contiguous row-major block per sheet.
+     *
+     * @param offHeap True to keep the cells in direct buffers outside the Java heap.
+     * @return A store with the ice sheets data, or null if an error occurs.
+     */
+    public IceSheetStore loadStore(boolean offHeap) {
+        try (IceDataTokenizer tokenizer = new IceDataTokenizer(Path.of(textFilePath))) {
+            // Read the number of ice sheets and create a store for them.
+            int iceSheets = tokenizer.nextInt();
+            IceSheetStore store = new IceSheetStore(iceSheets, offHeap);
+
+            // Loop through each ice sheet.
+            for (int iceSheet = 0; iceSheet < iceSheets; iceSheet++) {
+                // Read the number of rows and columns for this ice sheet.
+                int rows = tokenizer.nextInt();
+                int columns = tokenizer.nextInt();
+
+                if (offHeap) {
+                    // Parse one row at a time and write it into the direct buffers.
+                    store.putSheet(iceSheet, rows, columns, IceSheetStore.allocateOffHeap(rows, columns));
+                    int[] sheetRow = new int[columns];
+                    for (int row = 0; row < rows; row++) {
+                        for (int column = 0; column < columns; column++) {
+                            sheetRow[column] = tokenizer.nextInt();
+                        }
+                        store.putRow(iceSheet, row, sheetRow);
+                    }
+                }
+                else {
+                    // Parse the cells straight into the row-major block.
+                    int[] cells = new int[Math.multiplyExact(rows, columns)];
+                    for (int cell = 0; cell < cells.length; cell++) {
+                        cells[cell] = tokenizer.nextInt();
+                    }
+                    store.putSheet(iceSheet, rows, columns, cells);
+                }
+            }
+
+            bytesRead = tokenizer.position();
+            return store;
+        }
+        catch (IOException exception) {
+            // Print an error message if the file is missing or malformed.
+            System.out.println(exception.getMessage());
+        }
+        // Return null if an exception occurs.
+        return null;
+    }
+
+    /**
+     * Returns the number of bytes parsed by the last load.
+     *
+     * @return The number of bytes read from the file.
+     */
+    public long getBytesRead() {
+        return bytesRead;
+    }
+}
@@ -0,0 +1,163 @@
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The IceDataTokenizer class reads the integers of an ice sheet text file straight from
+ * a memory-mapped view of the file. It scans ASCII digits byte by byte and allocates nothing
+ * per token, which makes it much faster than a regex based Scanner on large files.
+ * Files larger than one mapping window are mapped window by window, so numbers that cross
+ * a window boundary are still read correctly.
+ * Created on October 17, 2026
+ * @author Maharshi Patel
+ */
+public class IceDataTokenizer implements Closeable {
+
+    // Size of a single mapped window of the file (64 MB).
+    private static final long WINDOW_SIZE = 64L << 20;
+
+    private final FileChannel channel;
+    private final long fileSize;
+
+    // Currently mapped window, its start offset in the file, and the read position inside it.
+    private MappedByteBuffer window;
+    private long windowStart;
+    private int windowPosition;
+    private int windowLimit;
+
+    /**
+     * Opens the given file and maps its first window.
+     *
+     * @param textFilePath The path to the text file containing the ice sheet data.
+     * @throws IOException If the file cannot be opened or mapped.
+     */
+    public IceDataTokenizer(Path textFilePath) throws IOException {
+        channel = FileChannel.open(textFilePath, StandardOpenOption.READ);
+        fileSize = channel.size();
+        map(0);
+    }
+
+    /**
+     * Reads the next integer from the file, skipping any whitespace before it.
+     * A number is an optional '-' followed by at least one digit, and must be followed by
+     * whitespace or the end of the file.
+     *
+     * @return The next integer value in the file.
+     * @throws EOFException If the end of the file is reached before a number is found.
+     * @throws IOException If the next token is not a number or does not fit in an int.
+     */
+    public int nextInt() throws IOException {
+        int current = nextByte();
+
+        // Skip the whitespace before the number (spaces, tabs, new lines).
+        while (isWhitespace(current)) {
+            current = nextByte();
+        }
+        if (current < 0) {
+            throw new EOFException("Unexpected end of ice sheet data at byte " + position());
+        }
+
+        long start = position() - 1;
+        boolean negative = current == '-';
+        if (negative) {
+            current = nextByte();
+        }
+        if (current < '0' || current > '9') {
+            throw new IOException("Malformed number in ice sheet data at byte " + start);
+        }
+
+        // Accumulate the digits until the first non digit byte, stopping as soon as the value leaves the int range.
+        long limit = negative ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE;
+        long value = 0;
+        while (current >= '0' && current <= '9') {
+            value = value * 10 + (current - '0');
+            if (value > limit) {
+                throw new IOException("Number in ice sheet data at byte " + start + " does not fit in an int");
+            }
+            current = nextByte();
+        }
+        if (current >= 0 && !isWhitespace(current)) {
+            throw new IOException("Malformed number in ice sheet data at byte " + start);
+        }
+        return (int) (negative ? -value : value);
+    }
+
+    /**
+     * Returns the offset in the file of the next byte that will be read.
+     *
+     * @return The current byte offset in the file.
+     */
+    public long position() {
+        return windowStart + windowPosition;
+    }
+
+    /**
+     * Moves the read position to the given byte offset in the file.
+     *
+     * @param offset The byte offset to continue reading from.
+     * @throws IOException If the new window cannot be mapped.
+     */
+    public void seek(long offset) throws IOException {
+        if (offset >= windowStart && offset <= windowStart + windowLimit) {
+            windowPosition = (int) (offset - windowStart);
+        }
+        else {
+            map(offset);
+        }
+    }
+
+    /**
+     * Returns the size of the file in bytes.
+     *
+     * @return The number of bytes in the file.
+     */
+    public long size() {
+        return fileSize;
+    }
+
+    /**
+     * Closes the underlying file channel.
+     *
+     * @throws IOException If the channel cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Returns the next byte of the file, or -1 when the end of the file is reached.
+     */
+    private int nextByte() throws IOException {
+        if (windowPosition == windowLimit) {
+            // Map the next window if there is anything left in the file.
+            if (windowStart + windowLimit >= fileSize) {
+                return -1;
+            }
+            map(windowStart + windowLimit);
+        }
+        return window.get(windowPosition++);
+    }
+
+    /**
+     * Returns true for the ASCII whitespace bytes that separate numbers.
+     */
+    private static boolean isWhitespace(int current) {
+        return current == ' ' || current == '\n' || current == '\r' || current == '\t' || current == '\f' || current == 0x0B;
+    }
+
+    /**
+     * Maps the window of the file starting at the given offset.
+     */
+    private void map(long offset) throws IOException {
+        long length = Math.max(0, Math.min(WINDOW_SIZE, fileSize - offset));
+        window = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+        windowStart = offset;
+        windowPosition = 0;
+        windowLimit = (int) length;
+    }
+}
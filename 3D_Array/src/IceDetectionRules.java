@@ -0,0 +1,218 @@
+/**
+ * The IceDetectionRules class holds the thresholds and the neighbourhood used to find weak spots
+ * and cracks. A weak spot is a cell whose value is at most the weak spot maximum and divisible by
+ * the weak spot divisor, and a crack is a weak spot with a neighbour divisible by the crack divisor.
+ * The neighbours are the 8 cells around a cell, or only the 4 beside, above and below it.
+ * The original rules are maximum 200, weak spot divisor 50, crack divisor 10 and 8 neighbours.
+ *
+ * The rules are compiled once into an IceKernel that runs on BitsetCrackEngine. Compiling turns each
+ * divisor into a multiplier, so the inner loop tests divisibility with one multiplication and one
+ * comparison on final fields instead of a division, and looks nothing up in the rules.
+ * Created on October 17, 2026
+ * @author Maharshi Patel
+ */
+public final class IceDetectionRules {
+
+    // The rules of the original assignment.
+    public static final IceDetectionRules DEFAULT = new IceDetectionRules(200, 50, 10, 8);
+
+    private final int weakSpotMaximum;
+    private final int weakSpotDivisor;
+    private final int crackDivisor;
+    private final int connectivity;
+
+    /**
+     * Creates a set of detection rules.
+     *
+     * @param weakSpotMaximum The largest value a weak spot may have.
+     * @param weakSpotDivisor The number every weak spot is divisible by.
+     * @param crackDivisor The number a neighbour of a crack is divisible by.
+     * @param connectivity 8 to count the diagonal neighbours, 4 to leave them out.
+     */
+    public IceDetectionRules(int weakSpotMaximum, int weakSpotDivisor, int crackDivisor, int connectivity) {
+        if (weakSpotDivisor < 1 || crackDivisor < 1) {
+            throw new IllegalArgumentException("Divisors must be at least 1: " + weakSpotDivisor + ", " + crackDivisor);
+        }
+        if (connectivity != 4 && connectivity != 8) {
+            throw new IllegalArgumentException("Connectivity must be 4 or 8: " + connectivity);
+        }
+        this.weakSpotMaximum = weakSpotMaximum;
+        this.weakSpotDivisor = weakSpotDivisor;
+        this.crackDivisor = crackDivisor;
+        this.connectivity = connectivity;
+    }
+
+    /**
+     * Reads detection rules from a comma separated list of settings, such as
+     * "maximum=300,weak=25,crack=6,connectivity=4". Settings that are left out keep their default.
+     *
+     * @param specification The settings to read.
+     * @return The detection rules.
+     * @throws IllegalArgumentException If a setting is unknown or invalid.
+     */
+    public static IceDetectionRules parse(String specification) {
+        int maximum = DEFAULT.weakSpotMaximum;
+        int weak = DEFAULT.weakSpotDivisor;
+        int crack = DEFAULT.crackDivisor;
+        int connectivity = DEFAULT.connectivity;
+
+        for (String setting : specification.split(",")) {
+            String[] keyAndValue = setting.trim().split("=", 2);
+            if (keyAndValue.length != 2) {
+                throw new IllegalArgumentException("Expected key=value: " + setting);
+            }
+            int value = Integer.parseInt(keyAndValue[1].trim());
+            switch (keyAndValue[0].trim()) {
+                case "maximum" -> maximum = value;
+                case "weak" -> weak = value;
+                case "crack" -> crack = value;
+                case "connectivity" -> connectivity = value;
+                default -> throw new IllegalArgumentException("Unknown rule: " + keyAndValue[0]);
+            }
+        }
+        return new IceDetectionRules(maximum, weak, crack, connectivity);
+    }
+
+    public int getWeakSpotMaximum() {
+        return weakSpotMaximum;
+    }
+
+    public int getWeakSpotDivisor() {
+        return weakSpotDivisor;
+    }
+
+    public int getCrackDivisor() {
+        return crackDivisor;
+    }
+
+    public int getConnectivity() {
+        return connectivity;
+    }
+
+    /**
+     * Returns true if a cell with the given value is a weak spot under these rules.
+     * This tests one cell at a time, the compiled kernel is much faster for whole sheets.
+     *
+     * @param value The value of the cell.
+     * @return True for a weak spot.
+     */
+    public boolean isWeakSpot(int value) {
+        return value <= weakSpotMaximum && value % weakSpotDivisor == 0;
+    }
+
+    /**
+     * Returns true if a neighbour with the given value turns a weak spot into a crack under these rules.
+     *
+     * @param value The value of the neighbour.
+     * @return True if the value is divisible by the crack divisor.
+     */
+    public boolean isCrackNeighbour(int value) {
+        return value % crackDivisor == 0;
+    }
+
+    /**
+     * Compiles the rules into a kernel for the sequential, parallel and streaming analyses.
+     *
+     * @return A kernel applying these rules.
+     */
+    public IceKernel compile() {
+        return new CompiledKernel(this);
+    }
+
+    /**
+     * Returns the kernel that applies these rules with the given backend. The backends only apply the
+     * original rules, so other rules are compiled, which takes the place of the default FUSED backend.
+     *
+     * @param backend The backend chosen for the analysis.
+     * @return The backend itself for the original rules, or the compiled kernel of these rules.
+     * @throws IllegalArgumentException If the rules are not the original ones and the backend is not FUSED.
+     */
+    public IceKernel kernelFor(IceKernelBackend backend) {
+        if (equals(DEFAULT)) {
+            return backend;
+        }
+        if (backend != IceKernelBackend.FUSED) {
+            throw new IllegalArgumentException("The " + backend.name().toLowerCase() + " backend only applies the rules "
+                    + DEFAULT + ", the rules " + this + " need the default fused backend");
+        }
+        return compile();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof IceDetectionRules)) {
+            return false;
+        }
+        IceDetectionRules rules = (IceDetectionRules) other;
+        return weakSpotMaximum == rules.weakSpotMaximum && weakSpotDivisor == rules.weakSpotDivisor
+                && crackDivisor == rules.crackDivisor && connectivity == rules.connectivity;
+    }
+
+    @Override
+    public int hashCode() {
+        return ((weakSpotMaximum * 31 + weakSpotDivisor) * 31 + crackDivisor) * 31 + connectivity;
+    }
+
+    @Override
+    public String toString() {
+        return "maximum=" + weakSpotMaximum + ",weak=" + weakSpotDivisor + ",crack=" + crackDivisor + ",connectivity=" + connectivity;
+    }
+
+    /**
+     * Returns the multiplier that tests divisibility by the divisor: an unsigned 32 bit n is divisible
+     * by d exactly when n * ceil(2^64 / d), kept to 64 bits, is less than ceil(2^64 / d) as unsigned numbers.
+     */
+    private static long divisibilityMultiplier(int divisor) {
+        return Long.divideUnsigned(-1L, divisor) + 1;
+    }
+
+    /**
+     * The CompiledKernel class is the kernel of one set of rules. It builds the row masks of
+     * BitsetCrackEngine with the rules' constants held in final fields.
+     */
+    private static final class CompiledKernel implements IceKernel, BitsetCrackEngine.RowMasks {
+        private final int weakSpotMaximum;
+        private final long weakSpotMultiplier;
+        private final long crackMultiplier;
+        private final boolean diagonals;
+
+        CompiledKernel(IceDetectionRules rules) {
+            this.weakSpotMaximum = rules.weakSpotMaximum;
+            this.weakSpotMultiplier = divisibilityMultiplier(rules.weakSpotDivisor);
+            this.crackMultiplier = divisibilityMultiplier(rules.crackDivisor);
+            this.diagonals = rules.connectivity == 8;
+        }
+
+        @Override
+        public int scanRows(IceSheetStore dataStore, int iceSheet, int fromRow, int toRow, LocationList cracks) {
+            return BitsetCrackEngine.scanRows(dataStore, iceSheet, fromRow, toRow, cracks, this, diagonals);
+        }
+
+        @Override
+        public void build(int[] cells, int rowStart, int columns, long[] tenMask, long[] weakMask) {
+            // Keep the constants in locals so they stay in registers for the whole row.
+            int maximum = weakSpotMaximum;
+            long weakMultiplier = weakSpotMultiplier;
+            long weakLimit = weakSpotMultiplier - 1 + Long.MIN_VALUE;
+            long neighbourMultiplier = crackMultiplier;
+            long neighbourLimit = crackMultiplier - 1 + Long.MIN_VALUE;
+
+            for (int word = 1, firstColumn = 0; firstColumn < columns; word++, firstColumn += 64) {
+                int lastColumn = Math.min(columns, firstColumn + 64);
+                long neighbour = 0;
+                long weak = 0;
+                for (int column = firstColumn; column < lastColumn; column++) {
+                    int value = cells[rowStart + column];
+                    long magnitude = Math.abs((long) value);
+                    long bit = 1L << (column - firstColumn);
+
+                    // Unsigned comparisons, done by shifting both sides by Long.MIN_VALUE.
+                    neighbour |= (magnitude * neighbourMultiplier + Long.MIN_VALUE <= neighbourLimit) ? bit : 0L;
+                    weak |= (value <= maximum & magnitude * weakMultiplier + Long.MIN_VALUE <= weakLimit) ? bit : 0L;
+                }
+                tenMask[word] = neighbour;
+                weakMask[word] = weak;
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/**
+ * The IceKernel interface is a kernel that finds the weak spots and cracks of ice sheets one band
+ * of rows at a time. The built-in kernels are the IceKernelBackend constants, and kernels for custom
+ * detection rules are compiled by IceDetectionRules. The sequential, parallel and streaming analyses
+ * accept any kernel.
+ * Created on October 17, 2026
+ * @author Maharshi Patel
+ */
+public interface IceKernel {
+
+    /**
+     * Finds the weak spots and cracks in a band of rows of one ice sheet.
+     * The rows just outside the band are read as neighbours.
+     *
+     * @param dataStore The store containing ice sheet data.
+     * @param iceSheet The sheet number.
+     * @param fromRow The first row of the band (inclusive).
+     * @param toRow The last row of the band (exclusive).
+     * @param cracks List receiving the cracks found in the band, in row and column order.
+     * @return The number of weak spots in the band.
+     */
+    int scanRows(IceSheetStore dataStore, int iceSheet, int fromRow, int toRow, LocationList cracks);
+
+    /**
+     * Finds the weak spots and cracks of every ice sheet in the store.
+     * The weak spot locations themselves are not collected.
+     *
+     * @param dataStore The store containing ice sheet data.
+     * @return The weak spot counts and the cracks of all sheets, in sheet, row and column order.
+     */
+    default CrackReport analyze(IceSheetStore dataStore) {
+        int[] weakSpotsPerSheet = new int[dataStore.sheetCount()];
+        LocationList cracks = new LocationList();
+        for (int iceSheet = 0; iceSheet < dataStore.sheetCount(); iceSheet++) {
+            weakSpotsPerSheet[iceSheet] = scanRows(dataStore, iceSheet, 0, dataStore.rows(iceSheet), cracks);
+        }
+        return new CrackReport(new WeakSpotReport(weakSpotsPerSheet, null), cracks);
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ * The IceKernelBackend enum lists the interchangeable kernels that find weak spots and cracks.
+ * Every backend scans a band of rows of one sheet and returns identical results, so the
+ * sequential, parallel and streaming analyses can run on any of them. They all apply the
+ * original detection rules, IceDetectionRules compiles kernels for other rules.
+ * Created on October 17, 2026
+ * @author Maharshi Patel
+ */
+public enum IceKernelBackend implements IceKernel {
+
+    /**
+     * Single streaming pass over a padded window of flag rows (FusedIceKernel).
+     */
+    FUSED {
+        @Override
+        public int scanRows(IceSheetStore dataStore, int iceSheet, int fromRow, int toRow, LocationList cracks) {
+            return FusedIceKernel.scanRows(dataStore, iceSheet, fromRow, toRow, cracks);
+        }
+    },
+
+    /**
+     * Bit-parallel row masks, 64 cells per operation (BitsetCrackEngine).
+     */
+    BITSET {
+        @Override
+        public int scanRows(IceSheetStore dataStore, int iceSheet, int fromRow, int toRow, LocationList cracks) {
+            return BitsetCrackEngine.scanRows(dataStore, iceSheet, fromRow, toRow, cracks);
+        }
+    },
+
+    /**
+     * Bit-parallel row masks built with SIMD vectors (VectorCrackEngine), or one cell at a time
+     * when the jdk.incubator.vector module is not available.
+     */
+    VECTOR {
+        @Override
+        public int scanRows(IceSheetStore dataStore, int iceSheet, int fromRow, int toRow, LocationList cracks) {
+            return BitsetCrackEngine.scanRows(dataStore, iceSheet, fromRow, toRow, cracks, VectorSupport.ROW_MASKS);
+        }
+    };
+
+    /**
+     * Returns true if the VECTOR backend runs on SIMD vectors, false if it fell back to scalar code.
+     *
+     * @return True when VectorCrackEngine was loaded.
+     */
+    public static boolean isVectorAvailable() {
+        return VectorSupport.ROW_MASKS != BitsetCrackEngine.SCALAR_MASKS;
+    }
+
+    /**
+     * The VectorSupport class loads VectorCrackEngine the first time the VECTOR backend is used.
+     * The class is only looked up by name, so this file compiles and runs without the vector module.
+     */
+    private static class VectorSupport {
+        static final BitsetCrackEngine.RowMasks ROW_MASKS = load();
+
+        private static BitsetCrackEngine.RowMasks load() {
+            if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+                return BitsetCrackEngine.SCALAR_MASKS;
+            }
+            try {
+                return (BitsetCrackEngine.RowMasks) Class.forName("VectorCrackEngine").getDeclaredConstructor().newInstance();
+            }
+            catch (ReflectiveOperationException | LinkageError exception) {
+                // VectorCrackEngine was not compiled or cannot run on this JVM.
+                return BitsetCrackEngine.SCALAR_MASKS;
+            }
+        }
+    }
+}
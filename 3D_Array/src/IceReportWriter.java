@@ -0,0 +1,352 @@
+import java.io.Closeable;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The IceReportWriter class writes the results of an analysis through one large buffer to a channel,
+ * instead of calling printf for every line. Numbers are turned into digits directly in the buffer,
+ * and the buffer is only written out when it is full, so millions of cracks cost a few large writes.
+ *
+ * There are three formats: the text report printed by IceDataAnalysis (PART A, PART B and SUMMARY),
+ * a CSV list of the cracks (sheet,row,column), and a compact binary list of the cracks.
+ * The binary list is little-endian: the magic number "ICEC", the format version, the number of sheets,
+ * the number of cracks as a long, the weak spot count of every sheet, and then every crack as three
+ * unsigned LEB128 varints: the difference from the previous crack's sheet, the difference from the previous
+ * row of the same sheet (or the row itself on a new sheet), and the difference from the previous column of
+ * the same row (or the column itself on a new row). The cracks are sorted, so most take three or four bytes.
+ * Created on October 17, 2026
+ * @author Maharshi Patel
+ */
+public class IceReportWriter implements Closeable {
+
+    // "ICEC" read as a little-endian int.
+    public static final int MAGIC = 0x43454349;
+    public static final int VERSION = 2;
+
+    // Size of the output buffer.
+    public static final int BUFFER_BYTES = 1 << 20;
+
+    // Room kept free for one line or number before it is put into the buffer.
+    private static final int LINE_BYTES = 128;
+
+    /**
+     * The Format enum lists the formats the writer can produce.
+     */
+    public enum Format {
+        TEXT, CSV, BINARY
+    }
+
+    private final WritableByteChannel channel;
+    private final boolean closeChannel;
+    private final Format format;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    private final byte[] digits = new byte[20];
+    private long bytesWritten;
+
+    /**
+     * Creates a writer of the given format on a channel.
+     *
+     * @param channel The channel receiving the report.
+     * @param format The format of the report.
+     * @param closeChannel True to close the channel when the writer is closed.
+     */
+    public IceReportWriter(WritableByteChannel channel, Format format, boolean closeChannel) {
+        this.channel = channel;
+        this.format = format;
+        this.closeChannel = closeChannel;
+    }
+
+    /**
+     * Opens a writer that creates or replaces a file.
+     *
+     * @param outputPath The path of the file to write.
+     * @param format The format of the report.
+     * @return The writer.
+     * @throws IOException If the file cannot be opened.
+     */
+    public static IceReportWriter open(Path outputPath, Format format) throws IOException {
+        return new IceReportWriter(FileChannel.open(outputPath, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE), format, true);
+    }
+
+    /**
+     * Opens a writer on the standard output. The standard output stays open when the writer is closed.
+     *
+     * @param format The format of the report.
+     * @return The writer.
+     */
+    public static IceReportWriter toStandardOutput(Format format) {
+        // Anything already printed through System.out must come first.
+        System.out.flush();
+        return new IceReportWriter(Channels.newChannel(new FileOutputStream(FileDescriptor.out)), format, false);
+    }
+
+    /**
+     * Writes a whole report in the writer's format.
+     *
+     * @param report The weak spot counts and cracks to write.
+     * @throws IOException If the report cannot be written.
+     */
+    public void write(CrackReport report) throws IOException {
+        switch (format) {
+            case TEXT -> writeText(report);
+            case CSV -> writeCsv(report);
+            case BINARY -> writeBinary(report);
+        }
+    }
+
+    /**
+     * Returns the number of bytes written to the channel so far.
+     *
+     * @return The bytes written.
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * Writes what is left in the buffer, and closes the channel if the writer owns it.
+     *
+     * @throws IOException If the buffer cannot be written.
+     */
+    @Override
+    public void close() throws IOException {
+        flush();
+        if (closeChannel) {
+            channel.close();
+        }
+    }
+
+    /**
+     * Writes the report printed by IceDataAnalysis.
+     */
+    private void writeText(CrackReport report) throws IOException {
+        WeakSpotReport weakSpots = report.getWeakSpots();
+
+        putAscii("PART A:\n");
+        // The number of weak spots on each sheet
+        for (int iceSheet = 0; iceSheet < weakSpots.getSheetCount(); iceSheet++) {
+            ensureRoom();
+            putAscii("Sheet ");
+            putNumber(iceSheet);
+            putAscii(" has ");
+            putNumber(weakSpots.getWeakSpots(iceSheet));
+            putAscii(" weak spots\n");
+        }
+        putAscii("\nTotal weak Spots on all Sheets = ");
+        putNumber(weakSpots.getTotalWeakSpots());
+        putAscii("\nSheet ");
+        putNumber(weakSpots.getMaximumWeakSpotsSheet());
+        putAscii(" has the highest number of weak Spots = ");
+        putNumber(weakSpots.getMaximumWeakSpots());
+        putAscii("\n");
+
+        putAscii("\nPART B:\n");
+        // The detected cracks and their locations
+        LocationList cracks = report.getCracks();
+        for (int crack = 0; crack < cracks.size(); crack++) {
+            ensureRoom();
+            putAscii("CRACK DETECTED @ [Sheet[");
+            putNumber(cracks.sheet(crack));
+            putAscii("](");
+            putNumber(cracks.row(crack));
+            putAscii(",");
+            putNumber(cracks.column(crack));
+            putAscii(")]\n");
+        }
+
+        putAscii("\nSUMMARY\n");
+        putAscii("The total number of weak spots that have cracked = ");
+        putNumber(report.getCrackCount());
+        putAscii("\nThe fraction of weak spots that are also cracks is ");
+        putAscii(String.format("%.3f", report.getCrackFraction()));
+        putAscii("\n");
+    }
+
+    /**
+     * Writes the cracks as CSV lines of sheet, row and column.
+     */
+    private void writeCsv(CrackReport report) throws IOException {
+        putAscii("sheet,row,column\n");
+        LocationList cracks = report.getCracks();
+        for (int crack = 0; crack < cracks.size(); crack++) {
+            ensureRoom();
+            putNumber(cracks.sheet(crack));
+            buffer.put((byte) ',');
+            putNumber(cracks.row(crack));
+            buffer.put((byte) ',');
+            putNumber(cracks.column(crack));
+            buffer.put((byte) '\n');
+        }
+    }
+
+    /**
+     * Writes the weak spot counts and the delta-encoded cracks.
+     */
+    private void writeBinary(CrackReport report) throws IOException {
+        WeakSpotReport weakSpots = report.getWeakSpots();
+        LocationList cracks = report.getCracks();
+
+        ensureRoom();
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(weakSpots.getSheetCount()).putLong(cracks.size());
+        for (int iceSheet = 0; iceSheet < weakSpots.getSheetCount(); iceSheet++) {
+            ensureRoom();
+            buffer.putInt(weakSpots.getWeakSpots(iceSheet));
+        }
+
+        int previousSheet = 0;
+        int previousRow = 0;
+        int previousColumn = 0;
+        for (int crack = 0; crack < cracks.size(); crack++) {
+            ensureRoom();
+            int iceSheet = cracks.sheet(crack);
+            int row = cracks.row(crack);
+            int column = cracks.column(crack);
+            if (iceSheet != previousSheet) {
+                previousRow = 0;
+                previousColumn = 0;
+            }
+            else if (row != previousRow) {
+                previousColumn = 0;
+            }
+            putVarint((long) iceSheet - previousSheet);
+            putVarint((long) row - previousRow);
+            putVarint((long) column - previousColumn);
+            previousSheet = iceSheet;
+            previousRow = row;
+            previousColumn = column;
+        }
+    }
+
+    /**
+     * Reads a binary crack list written by this class.
+     *
+     * @param binaryPath The path of the binary crack list.
+     * @return The weak spot counts and cracks, or null if an error occurs.
+     */
+    public static CrackReport readBinary(Path binaryPath) {
+        try (FileChannel channel = FileChannel.open(binaryPath, StandardOpenOption.READ)) {
+            ByteBuffer input = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+            if (input.remaining() < 20 || input.getInt() != MAGIC || input.getInt() != VERSION) {
+                throw new IOException(binaryPath + " is not a version " + VERSION + " binary crack list");
+            }
+            int[] weakSpotsPerSheet = new int[input.getInt()];
+            long crackCount = input.getLong();
+            for (int iceSheet = 0; iceSheet < weakSpotsPerSheet.length; iceSheet++) {
+                weakSpotsPerSheet[iceSheet] = input.getInt();
+            }
+
+            LocationList cracks = new LocationList();
+            int iceSheet = 0;
+            int row = 0;
+            int column = 0;
+            for (long crack = 0; crack < crackCount; crack++) {
+                long sheetChange = getVarint(input);
+                long rowChange = getVarint(input);
+                long columnChange = getVarint(input);
+                if (sheetChange != 0) {
+                    row = 0;
+                    column = 0;
+                }
+                else if (rowChange != 0) {
+                    column = 0;
+                }
+                iceSheet += (int) sheetChange;
+                row += (int) rowChange;
+                column += (int) columnChange;
+                cracks.add(iceSheet, row, column);
+            }
+            return new CrackReport(new WeakSpotReport(weakSpotsPerSheet, null), cracks);
+        }
+        catch (IOException | RuntimeException exception) {
+            // Print an error message if the file is missing or malformed.
+            System.out.println(exception.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Writes the buffer out when it has less room than one line.
+     */
+    private void ensureRoom() throws IOException {
+        if (buffer.remaining() < LINE_BYTES) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes everything in the buffer to the channel and clears the buffer.
+     */
+    private void flush() throws IOException {
+        buffer.flip();
+        bytesWritten += buffer.remaining();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Puts a string of ASCII characters into the buffer.
+     */
+    private void putAscii(String text) throws IOException {
+        for (int index = 0; index < text.length(); index++) {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            buffer.put((byte) text.charAt(index));
+        }
+    }
+
+    /**
+     * Puts the decimal digits of a number into the buffer.
+     */
+    private void putNumber(long value) {
+        if (value < 0) {
+            buffer.put((byte) '-');
+        }
+        // Digits come out lowest first, and stay correct for negative numbers.
+        int count = 0;
+        do {
+            digits[count++] = (byte) ('0' + Math.abs(value % 10));
+            value /= 10;
+        } while (value != 0);
+        while (count > 0) {
+            buffer.put(digits[--count]);
+        }
+    }
+
+    /**
+     * Puts an unsigned LEB128 varint into the buffer: seven bits per byte, lowest bits first,
+     * with the high bit set on every byte but the last.
+     */
+    private void putVarint(long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Reads an unsigned LEB128 varint.
+     */
+    private static long getVarint(ByteBuffer input) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte next = input.get();
+            value |= (long) (next & 0x7F) << shift;
+            if (next >= 0) {
+                return value;
+            }
+        }
+    }
+}
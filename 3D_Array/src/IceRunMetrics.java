@@ -0,0 +1,340 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.IntStream;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The IceRunMetrics class records where an analysis run spends its time and memory.
+ * A run is split into phases (parse or load, scan, output), and for each phase the elapsed time,
+ * the cells and bytes it handled, and the bytes allocated on the heap by all threads are recorded,
+ * so the parse throughput of a run is read from the mbPerSecond field of its parse phase.
+ * The kernel is wrapped by timeSheets, so the time spent on every sheet is recorded as well, in the
+ * sequential, parallel and streaming analyses alike.
+ *
+ * Every phase and every scanned band is also committed as a custom JFR event (ice.Phase and
+ * ice.Sheet), so a run started with -XX:StartFlightRecording can be inspected in JDK Mission Control.
+ * The scan phase covers the weak spots and the cracks together, since every kernel finds both in one pass.
+ * The allocation counter and the event classes are set up when the metrics are created, so their one-time
+ * cost is not charged to the first phase.
+ * Created on October 17, 2026
+ * @author Maharshi Patel
+ */
+public class IceRunMetrics {
+
+    // A sheet is an outlier when its time per cell is this many times the median time per cell.
+    public static final double OUTLIER_FACTOR = 3.0;
+
+    // Sheets with fewer cells are never outliers, their time is mostly the fixed cost of a scan.
+    public static final long OUTLIER_MINIMUM_CELLS = 4096;
+
+    // The most outlier sheets listed in the summary.
+    public static final int MAXIMUM_OUTLIERS = 10;
+
+    private final long startNanos = System.nanoTime();
+    private final List<Phase> phases = new ArrayList<>();
+    private Phase currentPhase;
+    private PhaseEvent currentEvent;
+
+    // Time and cells of every sheet scanned through timeSheets, grown as sheets arrive.
+    private long[] sheetNanos = new long[16];
+    private long[] sheetCells = new long[16];
+    private int sheets;
+
+    /**
+     * The PhaseEvent class is the JFR event of one phase of a run.
+     */
+    @Name("ice.Phase")
+    @Label("Ice Analysis Phase")
+    @Category("Ice Analysis")
+    @Description("One phase of an ice sheet analysis run")
+    public static class PhaseEvent extends Event {
+        @Label("Phase")
+        String phase;
+
+        @Label("Cells")
+        long cells;
+
+        @Label("Bytes Read")
+        @DataAmount
+        long bytesRead;
+
+        @Label("Allocated")
+        @DataAmount
+        long allocated;
+
+        @Label("Cells per Second")
+        double cellsPerSecond;
+    }
+
+    /**
+     * The SheetEvent class is the JFR event of one band of rows of a sheet being scanned.
+     */
+    @Name("ice.Sheet")
+    @Label("Ice Sheet Scan")
+    @Category("Ice Analysis")
+    @Description("The scan of a band of rows of one ice sheet")
+    public static class SheetEvent extends Event {
+        @Label("Sheet")
+        int sheet;
+
+        @Label("First Row")
+        int fromRow;
+
+        @Label("End Row")
+        int toRow;
+
+        @Label("Cells")
+        long cells;
+
+        @Label("Weak Spots")
+        int weakSpots;
+    }
+
+    /**
+     * Creates the metrics of a run, setting up the ThreadMXBean and the JFR event classes right away.
+     */
+    public IceRunMetrics() {
+        allocatedBytes();
+        new PhaseEvent().begin();
+        new SheetEvent().begin();
+    }
+
+    /**
+     * Starts a new phase, ending the current one first if it is still open.
+     *
+     * @param name The name of the phase.
+     */
+    public void startPhase(String name) {
+        if (currentPhase != null) {
+            endPhase(0, 0);
+        }
+        currentEvent = new PhaseEvent();
+        currentEvent.begin();
+        // Read the allocation counter first, so reading it is not part of the phase's time.
+        long allocated = allocatedBytes();
+        currentPhase = new Phase(name, System.nanoTime(), allocated);
+    }
+
+    /**
+     * Ends the current phase.
+     *
+     * @param cells The number of cells the phase handled.
+     * @param bytesRead The number of bytes the phase read from files.
+     */
+    public void endPhase(long cells, long bytesRead) {
+        Phase phase = currentPhase;
+        phase.nanos = System.nanoTime() - phase.nanos;
+        phase.allocated = allocatedBytes() - phase.allocated;
+        phase.cells = cells;
+        phase.bytesRead = bytesRead;
+        phases.add(phase);
+        currentPhase = null;
+
+        currentEvent.end();
+        if (currentEvent.shouldCommit()) {
+            currentEvent.phase = phase.name;
+            currentEvent.cells = cells;
+            currentEvent.bytesRead = bytesRead;
+            currentEvent.allocated = phase.allocated;
+            currentEvent.cellsPerSecond = phase.cellsPerSecond();
+            currentEvent.commit();
+        }
+    }
+
+    /**
+     * Returns a kernel that scans with the given kernel and records the time of every sheet.
+     *
+     * @param kernel The kernel doing the work.
+     * @return The timed kernel.
+     */
+    public IceKernel timeSheets(IceKernel kernel) {
+        return (dataStore, iceSheet, fromRow, toRow, cracks) -> {
+            SheetEvent event = new SheetEvent();
+            event.begin();
+            long start = System.nanoTime();
+
+            int weakSpots = kernel.scanRows(dataStore, iceSheet, fromRow, toRow, cracks);
+
+            long cells = (long) (toRow - fromRow) * dataStore.columns(iceSheet);
+            recordSheet(iceSheet, cells, System.nanoTime() - start);
+            event.end();
+            if (event.shouldCommit()) {
+                event.sheet = iceSheet;
+                event.fromRow = fromRow;
+                event.toRow = toRow;
+                event.cells = cells;
+                event.weakSpots = weakSpots;
+                event.commit();
+            }
+            return weakSpots;
+        };
+    }
+
+    /**
+     * Returns the number of cells scanned through timeSheets so far.
+     *
+     * @return The scanned cells of all sheets.
+     */
+    public synchronized long getScannedCells() {
+        long cells = 0;
+        for (int iceSheet = 0; iceSheet < sheets; iceSheet++) {
+            cells += sheetCells[iceSheet];
+        }
+        return cells;
+    }
+
+    /**
+     * Returns the total time of the run so far in milliseconds.
+     *
+     * @return The elapsed milliseconds.
+     */
+    public long getElapsedMillis() {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    /**
+     * Returns the metrics of the run as one line of JSON: the total time, every phase, and the
+     * sheets whose time per cell is an outlier. The sheet fields are left out when no sheet was
+     * scanned through timeSheets, as in the compressed analysis.
+     *
+     * @return The JSON summary.
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder();
+        json.append("{\"totalMs\":").append(getElapsedMillis());
+
+        json.append(",\"phases\":[");
+        for (int index = 0; index < phases.size(); index++) {
+            Phase phase = phases.get(index);
+            json.append(index == 0 ? "" : ",")
+                    .append("{\"name\":\"").append(phase.name).append('"')
+                    .append(",\"ms\":").append(format(phase.nanos / 1e6))
+                    .append(",\"cells\":").append(phase.cells)
+                    .append(",\"cellsPerSecond\":").append(format(phase.cellsPerSecond()))
+                    .append(",\"bytesRead\":").append(phase.bytesRead)
+                    .append(",\"mbPerSecond\":").append(format(phase.megabytesPerSecond()))
+                    .append(",\"allocatedBytes\":").append(phase.allocated)
+                    .append('}');
+        }
+        json.append(']');
+        if (sheets == 0) {
+            return json.append('}').toString();
+        }
+
+        json.append(",\"sheets\":").append(sheets);
+        json.append(",\"medianSheetNsPerCell\":").append(format(medianNanosPerCell()));
+        json.append(",\"outlierSheets\":[");
+        int[] outliers = outlierSheets();
+        for (int index = 0; index < outliers.length; index++) {
+            int iceSheet = outliers[index];
+            json.append(index == 0 ? "" : ",")
+                    .append("{\"sheet\":").append(iceSheet)
+                    .append(",\"ms\":").append(format(sheetNanos[iceSheet] / 1e6))
+                    .append(",\"cells\":").append(sheetCells[iceSheet])
+                    .append(",\"nsPerCell\":").append(format(nanosPerCell(iceSheet)))
+                    .append('}');
+        }
+        json.append("]}");
+        return json.toString();
+    }
+
+    /**
+     * Adds the time of one scanned band to its sheet.
+     */
+    private synchronized void recordSheet(int iceSheet, long cells, long nanos) {
+        if (iceSheet >= sheetNanos.length) {
+            int length = Math.max(sheetNanos.length * 2, iceSheet + 1);
+            sheetNanos = Arrays.copyOf(sheetNanos, length);
+            sheetCells = Arrays.copyOf(sheetCells, length);
+        }
+        sheetNanos[iceSheet] += nanos;
+        sheetCells[iceSheet] += cells;
+        sheets = Math.max(sheets, iceSheet + 1);
+    }
+
+    /**
+     * Returns the sheets of at least OUTLIER_MINIMUM_CELLS cells whose time per cell is at least
+     * OUTLIER_FACTOR times the median, slowest first.
+     */
+    private synchronized int[] outlierSheets() {
+        double limit = medianNanosPerCell() * OUTLIER_FACTOR;
+        return IntStream.range(0, sheets)
+                .filter(iceSheet -> sheetCells[iceSheet] >= OUTLIER_MINIMUM_CELLS && nanosPerCell(iceSheet) >= limit)
+                .boxed()
+                .sorted((first, second) -> Long.compare(sheetNanos[second], sheetNanos[first]))
+                .limit(MAXIMUM_OUTLIERS)
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /**
+     * Returns the median time per cell of the sheets that have cells.
+     */
+    private synchronized double medianNanosPerCell() {
+        double[] perCell = IntStream.range(0, sheets)
+                .filter(iceSheet -> sheetCells[iceSheet] > 0)
+                .mapToDouble(this::nanosPerCell)
+                .sorted()
+                .toArray();
+        return perCell.length == 0 ? 0 : perCell[perCell.length / 2];
+    }
+
+    private double nanosPerCell(int iceSheet) {
+        return (double) sheetNanos[iceSheet] / sheetCells[iceSheet];
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    /**
+     * Returns the bytes allocated on the heap so far by all live threads, or 0 when the JVM cannot tell.
+     * Threads that ended during a phase are not counted.
+     */
+    private static long allocatedBytes() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads)
+                || !threads.isThreadAllocatedMemorySupported() || !threads.isThreadAllocatedMemoryEnabled()) {
+            return 0;
+        }
+        long allocated = 0;
+        for (long bytes : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            allocated += Math.max(0, bytes);
+        }
+        return allocated;
+    }
+
+    /**
+     * The Phase class holds the measurements of one phase. While the phase is open, nanos and
+     * allocated hold the values at its start.
+     */
+    private static class Phase {
+        private final String name;
+        private long nanos;
+        private long allocated;
+        private long cells;
+        private long bytesRead;
+
+        Phase(String name, long nanos, long allocated) {
+            this.name = name;
+            this.nanos = nanos;
+            this.allocated = allocated;
+        }
+
+        double cellsPerSecond() {
+            return nanos == 0 ? 0 : cells * 1e9 / nanos;
+        }
+
+        double megabytesPerSecond() {
+            return nanos == 0 ? 0 : bytesRead / (1024.0 * 1024.0) * 1e9 / nanos;
+        }
+    }
+}
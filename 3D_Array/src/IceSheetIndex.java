@@ -0,0 +1,263 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The IceSheetIndex class records the byte offset and the dimensions of every sheet of an
+ * ice sheet text file, so a chosen subset of sheets can be loaded or analyzed by seeking
+ * straight to them instead of tokenizing every sheet before them.
+ *
+ * The index is built once and saved next to the text file (ICESHEETS_F24.TXT.idx). It remembers
+ * the size and modification time of the text file and is rebuilt when the text file changes.
+ * The saved index is little-endian: a 32 byte header (the magic number "ICEX", the format version,
+ * the number of sheets, a reserved int, the text file size and modification time as longs),
+ * followed by one 16 byte entry per sheet (the offset of its first cell as a long, its rows, and its columns).
+ * Created on October 17, 2026
+ * @author Maharshi Patel
+ */
+public class IceSheetIndex {
+
+    // "ICEX" read as a little-endian int.
+    public static final int MAGIC = 0x58454349;
+    public static final int VERSION = 1;
+
+    // Extension added to the text file name for the saved index.
+    public static final String INDEX_EXTENSION = ".idx";
+
+    private static final int HEADER_BYTES = 32;
+    private static final int ENTRY_BYTES = 16;
+
+    private final String textFilePath;
+    private final long textFileSize;
+    private final long textFileModified;
+
+    // Offset of the first cell, rows and columns of every sheet.
+    private final long[] offsets;
+    private final int[] rows;
+    private final int[] columns;
+
+    private IceSheetIndex(String textFilePath, long textFileSize, long textFileModified, long[] offsets, int[] rows, int[] columns) {
+        this.textFilePath = textFilePath;
+        this.textFileSize = textFileSize;
+        this.textFileModified = textFileModified;
+        this.offsets = offsets;
+        this.rows = rows;
+        this.columns = columns;
+    }
+
+    /**
+     * Returns the index of a text file, reading the saved index next to it when it is up to date,
+     * or building and saving a new one otherwise. An index that cannot be saved is still returned.
+     *
+     * @param textFilePath The path to the text file containing the ice sheet data.
+     * @return The index of the file, or null if an error occurs.
+     */
+    public static IceSheetIndex forFile(String textFilePath) {
+        try {
+            Path indexPath = Path.of(textFilePath + INDEX_EXTENSION);
+            if (Files.exists(indexPath)) {
+                IceSheetIndex index = read(textFilePath, indexPath);
+                if (index != null) {
+                    return index;
+                }
+            }
+            IceSheetIndex index = build(textFilePath);
+            try {
+                index.save(indexPath);
+            }
+            catch (IOException exception) {
+                // The index still works from memory when it cannot be saved, for example in a read-only directory.
+                System.out.println("Warning: the index could not be saved to " + indexPath + ": " + exception.getMessage());
+            }
+            return index;
+        }
+        catch (IOException exception) {
+            // Print an error message if the file is missing or malformed.
+            System.out.println(exception.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Builds the index of a text file by reading it once from start to end.
+     *
+     * @param textFilePath The path to the text file containing the ice sheet data.
+     * @return The index of the file.
+     * @throws IOException If the file cannot be read or is malformed.
+     */
+    public static IceSheetIndex build(String textFilePath) throws IOException {
+        Path textPath = Path.of(textFilePath);
+        long modified = Files.getLastModifiedTime(textPath).toMillis();
+
+        try (IceDataTokenizer tokenizer = new IceDataTokenizer(textPath)) {
+            int iceSheets = tokenizer.nextInt();
+            long[] offsets = new long[iceSheets];
+            int[] rows = new int[iceSheets];
+            int[] columns = new int[iceSheets];
+
+            for (int iceSheet = 0; iceSheet < iceSheets; iceSheet++) {
+                rows[iceSheet] = tokenizer.nextInt();
+                columns[iceSheet] = tokenizer.nextInt();
+                offsets[iceSheet] = tokenizer.position();
+
+                // Step over the cells of the sheet.
+                long cells = (long) rows[iceSheet] * columns[iceSheet];
+                for (long cell = 0; cell < cells; cell++) {
+                    tokenizer.nextInt();
+                }
+            }
+            return new IceSheetIndex(textFilePath, tokenizer.size(), modified, offsets, rows, columns);
+        }
+    }
+
+    /**
+     * Saves the index to a file.
+     *
+     * @param indexPath The path of the index file to write.
+     * @throws IOException If the file cannot be written.
+     */
+    public void save(Path indexPath) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + offsets.length * ENTRY_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(offsets.length).putInt(0);
+        buffer.putLong(textFileSize).putLong(textFileModified);
+        for (int iceSheet = 0; iceSheet < offsets.length; iceSheet++) {
+            buffer.putLong(offsets[iceSheet]).putInt(rows[iceSheet]).putInt(columns[iceSheet]);
+        }
+        buffer.flip();
+
+        try (FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Reads a saved index, returning null when it does not match the current text file.
+     */
+    private static IceSheetIndex read(String textFilePath, Path indexPath) throws IOException {
+        Path textPath = Path.of(textFilePath);
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(indexPath)).order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            return null;
+        }
+        int iceSheets = buffer.getInt();
+        buffer.getInt();
+        long size = buffer.getLong();
+        long modified = buffer.getLong();
+
+        // An index of an older version of the text file cannot be used.
+        if (size != Files.size(textPath) || modified != Files.getLastModifiedTime(textPath).toMillis()
+                || buffer.remaining() != (long) iceSheets * ENTRY_BYTES) {
+            return null;
+        }
+
+        long[] offsets = new long[iceSheets];
+        int[] rows = new int[iceSheets];
+        int[] columns = new int[iceSheets];
+        for (int iceSheet = 0; iceSheet < iceSheets; iceSheet++) {
+            offsets[iceSheet] = buffer.getLong();
+            rows[iceSheet] = buffer.getInt();
+            columns[iceSheet] = buffer.getInt();
+        }
+        return new IceSheetIndex(textFilePath, size, modified, offsets, rows, columns);
+    }
+
+    /**
+     * Returns the number of ice sheets in the file.
+     *
+     * @return The number of ice sheets.
+     */
+    public int sheetCount() {
+        return offsets.length;
+    }
+
+    /**
+     * Returns the number of rows of an ice sheet.
+     *
+     * @param iceSheet The sheet number.
+     * @return The number of rows of the sheet.
+     */
+    public int rows(int iceSheet) {
+        return rows[iceSheet];
+    }
+
+    /**
+     * Returns the number of columns of an ice sheet.
+     *
+     * @param iceSheet The sheet number.
+     * @return The number of columns of the sheet.
+     */
+    public int columns(int iceSheet) {
+        return columns[iceSheet];
+    }
+
+    /**
+     * Returns the byte offset of the first cell of an ice sheet in the text file.
+     *
+     * @param iceSheet The sheet number.
+     * @return The byte offset of the sheet's cells.
+     */
+    public long offset(int iceSheet) {
+        return offsets[iceSheet];
+    }
+
+    /**
+     * Loads only the chosen ice sheets by seeking straight to them.
+     * The returned store keeps the sheet numbers of the file: the chosen sheets hold their cells,
+     * and every other sheet is empty (0 rows and 0 columns).
+     *
+     * @param iceSheets The numbers of the sheets to load.
+     * @return A store with the chosen sheets, or null if an error occurs.
+     */
+    public IceSheetStore loadSheets(int... iceSheets) {
+        IceSheetStore store = new IceSheetStore(sheetCount(), false);
+        for (int iceSheet = 0; iceSheet < sheetCount(); iceSheet++) {
+            store.putSheet(iceSheet, 0, 0, new int[0]);
+        }
+
+        try (IceDataTokenizer tokenizer = new IceDataTokenizer(Path.of(textFilePath))) {
+            for (int iceSheet : iceSheets) {
+                tokenizer.seek(offsets[iceSheet]);
+
+                int[] cells = new int[Math.multiplyExact(rows[iceSheet], columns[iceSheet])];
+                for (int cell = 0; cell < cells.length; cell++) {
+                    cells[cell] = tokenizer.nextInt();
+                }
+                store.putSheet(iceSheet, rows[iceSheet], columns[iceSheet], cells);
+            }
+            return store;
+        }
+        catch (IOException exception) {
+            // Print an error message if the file is missing or malformed.
+            System.out.println(exception.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Finds the weak spots and cracks of only the chosen ice sheets.
+     * The report covers every sheet number of the file, the sheets that were not chosen have no weak spots.
+     *
+     * @param iceSheets The numbers of the sheets to analyze, in the order the cracks are wanted.
+     * @return The weak spot counts and the cracks of the chosen sheets, or null if an error occurs.
+     */
+    public CrackReport analyzeSheets(int... iceSheets) {
+        IceSheetStore store = loadSheets(iceSheets);
+        if (store == null) {
+            return null;
+        }
+
+        int[] weakSpotsPerSheet = new int[sheetCount()];
+        LocationList cracks = new LocationList();
+        for (int iceSheet : iceSheets) {
+            weakSpotsPerSheet[iceSheet] = FusedIceKernel.scanRows(store, iceSheet, 0, store.rows(iceSheet), cracks);
+        }
+        return new CrackReport(new WeakSpotReport(weakSpotsPerSheet, null), cracks);
+    }
+}
@@ -0,0 +1,370 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/**
+ * The IceSheetStore class holds the cells of every ice sheet in one contiguous row-major
+ * block per sheet instead of one array object per row. The cell at (row, column) of a sheet
+ * is stored at index row * columns + column of that sheet's block.
+ * Each block is either an int[] on the Java heap, or IntBuffers outside the heap
+ * (direct or memory-mapped buffers), which keeps very large datasets out of the GC heap.
+ * One buffer cannot hold more than 2 GB, so an off-heap sheet is split into chunks of CHUNK_CELLS
+ * cells, and cell indexes are longs, so a sheet may hold more cells than an int can count.
+ * Created on October 17, 2026
+ * @author Maharshi Patel
+ */
+public class IceSheetStore {
+
+    // Cells in each buffer of an off-heap sheet (1 GB), the last buffer of a sheet holds the rest.
+    public static final int CHUNK_CELLS = 1 << 28;
+    private static final int CHUNK_SHIFT = 28;
+    private static final long CHUNK_MASK = CHUNK_CELLS - 1;
+
+    // Dimensions of every ice sheet.
+    private final int[] rows;
+    private final int[] columns;
+
+    // Cell blocks of every ice sheet, only one of the two arrays is used by a store.
+    private final int[][] heapSheets;
+    private final IntBuffer[][] bufferSheets;
+
+    /**
+     * Creates an empty store for the given number of ice sheets.
+     * Every sheet must be added with putSheet before it is read.
+     *
+     * @param iceSheets The number of ice sheets in the store.
+     * @param offHeap True to keep the cells in direct buffers outside the Java heap.
+     */
+    public IceSheetStore(int iceSheets, boolean offHeap) {
+        rows = new int[iceSheets];
+        columns = new int[iceSheets];
+        heapSheets = offHeap ? null : new int[iceSheets][];
+        bufferSheets = offHeap ? new IntBuffer[iceSheets][] : null;
+    }
+
+    /**
+     * Creates a heap store holding a copy of the given 3D array of ice sheets.
+     *
+     * @param dataArray The 3D array containing ice sheet data.
+     * @return A store with the same sheets as the 3D array.
+     */
+    public static IceSheetStore fromArray(int[][][] dataArray) {
+        IceSheetStore store = new IceSheetStore(dataArray.length, false);
+
+        for (int iceSheet = 0; iceSheet < dataArray.length; iceSheet++) {
+            int sheetRows = dataArray[iceSheet].length;
+            int sheetColumns = sheetRows == 0 ? 0 : dataArray[iceSheet][0].length;
+            int[] cells = new int[sheetRows * sheetColumns];
+
+            // Copy each row into its place in the contiguous block.
+            for (int row = 0; row < sheetRows; row++) {
+                System.arraycopy(dataArray[iceSheet][row], 0, cells, row * sheetColumns, sheetColumns);
+            }
+            store.putSheet(iceSheet, sheetRows, sheetColumns, cells);
+        }
+        return store;
+    }
+
+    /**
+     * Allocates direct buffers outside the Java heap large enough for a sheet of the given size,
+     * CHUNK_CELLS cells in each buffer but the last.
+     *
+     * @param sheetRows The number of rows of the sheet.
+     * @param sheetColumns The number of columns of the sheet.
+     * @return The direct IntBuffers with room for every cell of the sheet.
+     */
+    public static IntBuffer[] allocateOffHeap(int sheetRows, int sheetColumns) {
+        long cells = (long) sheetRows * sheetColumns;
+        IntBuffer[] chunks = new IntBuffer[chunkCount(cells)];
+        for (int chunk = 0; chunk < chunks.length; chunk++) {
+            int chunkCells = (int) Math.min(CHUNK_CELLS, cells - ((long) chunk << CHUNK_SHIFT));
+            chunks[chunk] = ByteBuffer.allocateDirect(chunkCells * Integer.BYTES)
+                    .order(ByteOrder.nativeOrder())
+                    .asIntBuffer();
+        }
+        return chunks;
+    }
+
+    /**
+     * Returns the number of buffers holding an off-heap sheet of the given number of cells.
+     *
+     * @param cells The number of cells of the sheet.
+     * @return The number of chunks.
+     */
+    public static int chunkCount(long cells) {
+        return Math.toIntExact((cells + CHUNK_MASK) >>> CHUNK_SHIFT);
+    }
+
+    /**
+     * Stores a heap block of cells as the given ice sheet.
+     *
+     * @param iceSheet The sheet number.
+     * @param sheetRows The number of rows of the sheet.
+     * @param sheetColumns The number of columns of the sheet.
+     * @param cells The row-major cells of the sheet.
+     */
+    public void putSheet(int iceSheet, int sheetRows, int sheetColumns, int[] cells) {
+        if (heapSheets == null) {
+            IntBuffer[] chunks = allocateOffHeap(sheetRows, sheetColumns);
+            for (int chunk = 0; chunk < chunks.length; chunk++) {
+                chunks[chunk].put(0, cells, chunk << CHUNK_SHIFT, chunks[chunk].limit());
+            }
+            putSheet(iceSheet, sheetRows, sheetColumns, chunks);
+            return;
+        }
+        checkSize(sheetRows, sheetColumns, cells.length);
+        rows[iceSheet] = sheetRows;
+        columns[iceSheet] = sheetColumns;
+        heapSheets[iceSheet] = cells;
+    }
+
+    /**
+     * Stores a buffer of cells (direct or memory-mapped) as the given ice sheet.
+     * A buffer larger than CHUNK_CELLS is split into views of its chunks, without copying it.
+     *
+     * @param iceSheet The sheet number.
+     * @param sheetRows The number of rows of the sheet.
+     * @param sheetColumns The number of columns of the sheet.
+     * @param cells The row-major cells of the sheet, starting at index 0 of the buffer.
+     */
+    public void putSheet(int iceSheet, int sheetRows, int sheetColumns, IntBuffer cells) {
+        IntBuffer[] chunks = {cells};
+        if (cells.limit() > CHUNK_CELLS) {
+            chunks = new IntBuffer[chunkCount(cells.limit())];
+            for (int chunk = 0; chunk < chunks.length; chunk++) {
+                int start = chunk << CHUNK_SHIFT;
+                chunks[chunk] = cells.slice(start, Math.min(CHUNK_CELLS, cells.limit() - start));
+            }
+        }
+        putSheet(iceSheet, sheetRows, sheetColumns, chunks);
+    }
+
+    /**
+     * Stores buffers of cells (direct or memory-mapped) as the given ice sheet.
+     * Every buffer but the last holds CHUNK_CELLS cells, as returned by allocateOffHeap.
+     *
+     * @param iceSheet The sheet number.
+     * @param sheetRows The number of rows of the sheet.
+     * @param sheetColumns The number of columns of the sheet.
+     * @param chunks The row-major cells of the sheet, each buffer starting at index 0.
+     */
+    public void putSheet(int iceSheet, int sheetRows, int sheetColumns, IntBuffer[] chunks) {
+        if (bufferSheets == null) {
+            int[] heapCells = new int[Math.multiplyExact(sheetRows, sheetColumns)];
+            for (int chunk = 0; chunk < chunks.length; chunk++) {
+                chunks[chunk].get(0, heapCells, chunk << CHUNK_SHIFT, chunks[chunk].limit());
+            }
+            putSheet(iceSheet, sheetRows, sheetColumns, heapCells);
+            return;
+        }
+        long cells = 0;
+        for (int chunk = 0; chunk < chunks.length; chunk++) {
+            if (chunks[chunk].limit() > CHUNK_CELLS || (chunk < chunks.length - 1 && chunks[chunk].limit() != CHUNK_CELLS)) {
+                throw new IllegalArgumentException("Buffer " + chunk + " of sheet " + iceSheet + " holds "
+                        + chunks[chunk].limit() + " cells instead of " + CHUNK_CELLS);
+            }
+            cells += chunks[chunk].limit();
+        }
+        checkSize(sheetRows, sheetColumns, cells);
+        rows[iceSheet] = sheetRows;
+        columns[iceSheet] = sheetColumns;
+        bufferSheets[iceSheet] = chunks;
+    }
+
+    /**
+     * Returns the number of ice sheets in the store.
+     *
+     * @return The number of ice sheets.
+     */
+    public int sheetCount() {
+        return rows.length;
+    }
+
+    /**
+     * Returns the number of cells of all the sheets in the store.
+     *
+     * @return The total number of cells.
+     */
+    public long cellCount() {
+        long cells = 0;
+        for (int iceSheet = 0; iceSheet < rows.length; iceSheet++) {
+            cells += (long) rows[iceSheet] * columns[iceSheet];
+        }
+        return cells;
+    }
+
+    /**
+     * Returns the number of rows of an ice sheet.
+     *
+     * @param iceSheet The sheet number.
+     * @return The number of rows of the sheet.
+     */
+    public int rows(int iceSheet) {
+        return rows[iceSheet];
+    }
+
+    /**
+     * Returns the number of columns of an ice sheet.
+     *
+     * @param iceSheet The sheet number.
+     * @return The number of columns of the sheet.
+     */
+    public int columns(int iceSheet) {
+        return columns[iceSheet];
+    }
+
+    /**
+     * Returns true if the cells are kept in buffers outside the Java heap.
+     *
+     * @return True for an off-heap store, false for a heap store.
+     */
+    public boolean isOffHeap() {
+        return heapSheets == null;
+    }
+
+    /**
+     * Returns the value of a cell.
+     *
+     * @param iceSheet The sheet number.
+     * @param row The row of the cell.
+     * @param column The column of the cell.
+     * @return The value stored in the cell.
+     */
+    public int get(int iceSheet, int row, int column) {
+        long index = (long) row * columns[iceSheet] + column;
+        if (heapSheets != null) {
+            return heapSheets[iceSheet][(int) index];
+        }
+        return bufferSheets[iceSheet][(int) (index >>> CHUNK_SHIFT)].get((int) (index & CHUNK_MASK));
+    }
+
+    /**
+     * Changes the value of a cell.
+     *
+     * @param iceSheet The sheet number.
+     * @param row The row of the cell.
+     * @param column The column of the cell.
+     * @param value The new value of the cell.
+     */
+    public void set(int iceSheet, int row, int column, int value) {
+        long index = (long) row * columns[iceSheet] + column;
+        if (heapSheets != null) {
+            heapSheets[iceSheet][(int) index] = value;
+        }
+        else {
+            bufferSheets[iceSheet][(int) (index >>> CHUNK_SHIFT)].put((int) (index & CHUNK_MASK), value);
+        }
+    }
+
+    /**
+     * Returns the row-major heap block of an ice sheet.
+     * The block is shared with the store, so changes to it change the sheet.
+     *
+     * @param iceSheet The sheet number.
+     * @return The cells of the sheet, or null if the store is off-heap.
+     */
+    public int[] heapCells(int iceSheet) {
+        return heapSheets != null ? heapSheets[iceSheet] : null;
+    }
+
+    /**
+     * Copies one row of an ice sheet into the given array, whatever the backing of the store.
+     *
+     * @param iceSheet The sheet number.
+     * @param row The row to copy.
+     * @param destination The array receiving the row, starting at index 0.
+     */
+    public void copyRow(int iceSheet, int row, int[] destination) {
+        copyRow(iceSheet, row, destination, 0);
+    }
+
+    /**
+     * Copies one row of an ice sheet into the given array at an offset, whatever the backing of the store.
+     *
+     * @param iceSheet The sheet number.
+     * @param row The row to copy.
+     * @param destination The array receiving the row.
+     * @param offset The index of the destination receiving the first cell of the row.
+     */
+    public void copyRow(int iceSheet, int row, int[] destination, int offset) {
+        int sheetColumns = columns[iceSheet];
+        long index = (long) row * sheetColumns;
+        if (heapSheets != null) {
+            System.arraycopy(heapSheets[iceSheet], (int) index, destination, offset, sheetColumns);
+            return;
+        }
+        // A row may start in one buffer and end in the next.
+        int copied = 0;
+        while (copied < sheetColumns) {
+            IntBuffer chunk = bufferSheets[iceSheet][(int) (index >>> CHUNK_SHIFT)];
+            int start = (int) (index & CHUNK_MASK);
+            int length = Math.min(sheetColumns - copied, chunk.limit() - start);
+            chunk.get(start, destination, offset + copied, length);
+            copied += length;
+            index += length;
+        }
+    }
+
+    /**
+     * Writes one row of an ice sheet from the given array, whatever the backing of the store.
+     *
+     * @param iceSheet The sheet number.
+     * @param row The row to write.
+     * @param source The array holding the row, starting at index 0.
+     */
+    public void putRow(int iceSheet, int row, int[] source) {
+        int sheetColumns = columns[iceSheet];
+        long index = (long) row * sheetColumns;
+        if (heapSheets != null) {
+            System.arraycopy(source, 0, heapSheets[iceSheet], (int) index, sheetColumns);
+            return;
+        }
+        int written = 0;
+        while (written < sheetColumns) {
+            IntBuffer chunk = bufferSheets[iceSheet][(int) (index >>> CHUNK_SHIFT)];
+            int start = (int) (index & CHUNK_MASK);
+            int length = Math.min(sheetColumns - written, chunk.limit() - start);
+            chunk.put(start, source, written, length);
+            written += length;
+            index += length;
+        }
+    }
+
+    /**
+     * Drops the cells of an ice sheet so they can be garbage collected.
+     * The dimensions of the sheet are kept, but its cells can no longer be read.
+     *
+     * @param iceSheet The sheet number.
+     */
+    public void releaseSheet(int iceSheet) {
+        if (heapSheets != null) {
+            heapSheets[iceSheet] = null;
+        }
+        else {
+            bufferSheets[iceSheet] = null;
+        }
+    }
+
+    /**
+     * Converts an ice sheet back into a 2D array.
+     *
+     * @param iceSheet The sheet number.
+     * @return A new 2D array with the cells of the sheet.
+     */
+    public int[][] toArray(int iceSheet) {
+        int[][] sheet = new int[rows[iceSheet]][columns[iceSheet]];
+        for (int row = 0; row < sheet.length; row++) {
+            copyRow(iceSheet, row, sheet[row]);
+        }
+        return sheet;
+    }
+
+    /**
+     * Checks that a block of cells matches the dimensions of its sheet.
+     */
+    private static void checkSize(int sheetRows, int sheetColumns, long cells) {
+        if ((long) sheetRows * sheetColumns != cells) {
+            throw new IllegalArgumentException("Sheet of " + sheetRows + "x" + sheetColumns + " cannot hold " + cells + " cells");
+        }
+    }
+}
@@ -0,0 +1,350 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The IceSummedAreaTable class answers how many weak spots or cracks lie in any rectangle of a sheet
+ * in constant time, without scanning the sheet again. For every sheet it keeps two summed-area tables:
+ * entry (row, column) of a table holds the number of weak spots (or cracks) in all the cells above and
+ * to the left of that corner, so the count of a rectangle is four lookups and three additions.
+ * A sheet of R rows and C columns has tables of (R + 1) x (C + 1) ints in one row-major block each,
+ * the extra first row and column being zero.
+ *
+ * The tables can be saved next to the dataset (ICESHEETS_F24.TXT.sat) and are then memory-mapped
+ * instead of being built again. Like IceSheetIndex, the saved tables remember the size and
+ * modification time of the dataset, and also the detection rules they were built with, and are
+ * rebuilt when either changes. The saved tables are little-endian: a 48 byte header (the magic number
+ * "ICES", the format version, the number of sheets, the weak spot maximum, the weak spot divisor,
+ * the crack divisor, the connectivity, a reserved int, the dataset size and modification time as longs),
+ * the rows and columns of every sheet as two ints, and then the weak spot and crack tables of every sheet.
+ * Created on October 17, 2026
+ * @author Maharshi Patel
+ */
+public class IceSummedAreaTable {
+
+    // "ICES" read as a little-endian int.
+    public static final int MAGIC = 0x53454349;
+    public static final int VERSION = 1;
+
+    // Extension added to the dataset file name for the saved tables.
+    public static final String TABLE_EXTENSION = ".sat";
+
+    private static final int HEADER_BYTES = 48;
+    private static final int ENTRY_BYTES = 8;
+
+    private final IceDetectionRules rules;
+    private final int[] rows;
+    private final int[] columns;
+
+    // Summed-area tables of every sheet, on the heap after building, memory-mapped after reading.
+    private final IntBuffer[] weakSpotSums;
+    private final IntBuffer[] crackSums;
+
+    private IceSummedAreaTable(IceDetectionRules rules, int[] rows, int[] columns, IntBuffer[] weakSpotSums, IntBuffer[] crackSums) {
+        this.rules = rules;
+        this.rows = rows;
+        this.columns = columns;
+        this.weakSpotSums = weakSpotSums;
+        this.crackSums = crackSums;
+    }
+
+    /**
+     * Counts the weak spots and cracks in a rectangle of one sheet.
+     * Usage: java IceSummedAreaTable ICESHEETS_F24.TXT sheet firstRow firstColumn lastRow lastColumn
+     *
+     * @param args the dataset, the sheet number and the corners of the rectangle (inclusive).
+     */
+    public static void main(String[] args) {
+        if (args.length != 6) {
+            System.out.println("Usage: java IceSummedAreaTable <file> <sheet> <first row> <first column> <last row> <last column>");
+            return;
+        }
+        IceSummedAreaTable table = forFile(args[0], IceDetectionRules.DEFAULT);
+        if (table == null) {
+            return;
+        }
+        int iceSheet = Integer.parseInt(args[1]);
+        int firstRow = Integer.parseInt(args[2]);
+        int firstColumn = Integer.parseInt(args[3]);
+        int lastRow = Integer.parseInt(args[4]);
+        int lastColumn = Integer.parseInt(args[5]);
+        System.out.printf("Sheet %d rows %d-%d columns %d-%d has %d weak spots and %d cracks\n", iceSheet,
+                firstRow, lastRow, firstColumn, lastColumn,
+                table.countWeakSpots(iceSheet, firstRow, firstColumn, lastRow, lastColumn),
+                table.countCracks(iceSheet, firstRow, firstColumn, lastRow, lastColumn));
+    }
+
+    /**
+     * Returns the tables of a dataset, mapping the saved tables next to it when they are up to date,
+     * or loading the dataset, building the tables and saving them otherwise. Tables that cannot be saved
+     * are still returned.
+     *
+     * @param dataFilePath The path to the text or binary ice sheet file.
+     * @param rules The rules that decide the weak spots and cracks.
+     * @return The tables of the dataset, or null if an error occurs.
+     */
+    public static IceSummedAreaTable forFile(String dataFilePath, IceDetectionRules rules) {
+        try {
+            Path tablePath = Path.of(dataFilePath + TABLE_EXTENSION);
+            if (Files.exists(tablePath)) {
+                IceSummedAreaTable table = read(dataFilePath, tablePath, rules);
+                if (table != null) {
+                    return table;
+                }
+            }
+            IceSheetStore dataStore = IceBinaryFormat.isBinary(dataFilePath)
+                    ? IceBinaryFormat.open(dataFilePath)
+                    : new IceDataLoader(dataFilePath).loadStore(false);
+            if (dataStore == null) {
+                return null;
+            }
+            IceSummedAreaTable table = build(dataStore, rules);
+            try {
+                table.save(tablePath, Path.of(dataFilePath));
+            }
+            catch (IOException exception) {
+                // The tables still work from memory when they cannot be saved, for example in a read-only directory.
+                System.out.println("Warning: the tables could not be saved to " + tablePath + ": " + exception.getMessage());
+            }
+            return table;
+        }
+        catch (IOException exception) {
+            // Print an error message if the file is missing or malformed.
+            System.out.println(exception.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Builds the tables of every sheet in a store with one scan of each sheet.
+     * Sheets with a single row or column have no cracks, as in IceDataAnalysis.cracks.
+     *
+     * @param dataStore The store containing ice sheet data.
+     * @param rules The rules that decide the weak spots and cracks.
+     * @return The tables of the store.
+     */
+    public static IceSummedAreaTable build(IceSheetStore dataStore, IceDetectionRules rules) {
+        int iceSheets = dataStore.sheetCount();
+        int[] rows = new int[iceSheets];
+        int[] columns = new int[iceSheets];
+        IntBuffer[] weakSpotSums = new IntBuffer[iceSheets];
+        IntBuffer[] crackSums = new IntBuffer[iceSheets];
+        IceKernel kernel = rules.compile();
+
+        for (int iceSheet = 0; iceSheet < iceSheets; iceSheet++) {
+            int sheetRows = dataStore.rows(iceSheet);
+            int sheetColumns = dataStore.columns(iceSheet);
+            int width = sheetColumns + 1;
+            int[] weakSpotTable = new int[Math.multiplyExact(sheetRows + 1, width)];
+            int[] crackTable = new int[weakSpotTable.length];
+
+            // The cracks come in row and column order, so they are taken from the list row by row.
+            LocationList cracks = new LocationList();
+            kernel.scanRows(dataStore, iceSheet, 0, sheetRows, cracks);
+            int nextCrack = 0;
+
+            int[] rowCells = new int[sheetColumns];
+            for (int row = 0; row < sheetRows; row++) {
+                dataStore.copyRow(iceSheet, row, rowCells);
+                int above = row * width;
+                int entry = above + width;
+                int weakSpotsInRow = 0;
+                int cracksInRow = 0;
+                for (int column = 0; column < sheetColumns; column++) {
+                    if (rules.isWeakSpot(rowCells[column])) {
+                        weakSpotsInRow++;
+                    }
+                    if (nextCrack < cracks.size() && cracks.row(nextCrack) == row && cracks.column(nextCrack) == column) {
+                        cracksInRow++;
+                        nextCrack++;
+                    }
+                    weakSpotTable[entry + column + 1] = weakSpotTable[above + column + 1] + weakSpotsInRow;
+                    crackTable[entry + column + 1] = crackTable[above + column + 1] + cracksInRow;
+                }
+            }
+            rows[iceSheet] = sheetRows;
+            columns[iceSheet] = sheetColumns;
+            weakSpotSums[iceSheet] = IntBuffer.wrap(weakSpotTable);
+            crackSums[iceSheet] = IntBuffer.wrap(crackTable);
+        }
+        return new IceSummedAreaTable(rules, rows, columns, weakSpotSums, crackSums);
+    }
+
+    /**
+     * Saves the tables next to a dataset.
+     *
+     * @param tablePath The path of the table file to write.
+     * @param dataPath The dataset the tables were built from.
+     * @throws IOException If the file cannot be written.
+     */
+    public void save(Path tablePath, Path dataPath) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES + rows.length * ENTRY_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(rows.length);
+        header.putInt(rules.getWeakSpotMaximum()).putInt(rules.getWeakSpotDivisor()).putInt(rules.getCrackDivisor())
+                .putInt(rules.getConnectivity()).putInt(0);
+        header.putLong(Files.size(dataPath)).putLong(Files.getLastModifiedTime(dataPath).toMillis());
+        for (int iceSheet = 0; iceSheet < rows.length; iceSheet++) {
+            header.putInt(rows[iceSheet]).putInt(columns[iceSheet]);
+        }
+
+        try (FileChannel channel = FileChannel.open(tablePath, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(channel, header);
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+            for (int iceSheet = 0; iceSheet < rows.length; iceSheet++) {
+                for (IntBuffer table : new IntBuffer[]{weakSpotSums[iceSheet], crackSums[iceSheet]}) {
+                    for (int entry = 0; entry < table.limit(); entry++) {
+                        if (!buffer.hasRemaining()) {
+                            writeFully(channel, buffer);
+                        }
+                        buffer.putInt(table.get(entry));
+                    }
+                }
+            }
+            writeFully(channel, buffer);
+        }
+    }
+
+    /**
+     * Maps saved tables, returning null when they do not match the current dataset or rules.
+     */
+    private static IceSummedAreaTable read(String dataFilePath, Path tablePath, IceDetectionRules rules) throws IOException {
+        Path dataPath = Path.of(dataFilePath);
+        try (FileChannel channel = FileChannel.open(tablePath, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                return null;
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                return null;
+            }
+            int iceSheets = header.getInt(8);
+
+            // Tables of an older version of the dataset, or of other rules, cannot be used.
+            if (header.getInt(12) != rules.getWeakSpotMaximum() || header.getInt(16) != rules.getWeakSpotDivisor()
+                    || header.getInt(20) != rules.getCrackDivisor() || header.getInt(24) != rules.getConnectivity()
+                    || header.getLong(32) != Files.size(dataPath)
+                    || header.getLong(40) != Files.getLastModifiedTime(dataPath).toMillis()) {
+                return null;
+            }
+
+            ByteBuffer directory = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, (long) iceSheets * ENTRY_BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            int[] rows = new int[iceSheets];
+            int[] columns = new int[iceSheets];
+            IntBuffer[] weakSpotSums = new IntBuffer[iceSheets];
+            IntBuffer[] crackSums = new IntBuffer[iceSheets];
+
+            long offset = HEADER_BYTES + (long) iceSheets * ENTRY_BYTES;
+            for (int iceSheet = 0; iceSheet < iceSheets; iceSheet++) {
+                rows[iceSheet] = directory.getInt(iceSheet * ENTRY_BYTES);
+                columns[iceSheet] = directory.getInt(iceSheet * ENTRY_BYTES + 4);
+                long tableBytes = (long) (rows[iceSheet] + 1) * (columns[iceSheet] + 1) * Integer.BYTES;
+                if (offset + 2 * tableBytes > channel.size()) {
+                    return null;
+                }
+                weakSpotSums[iceSheet] = channel.map(FileChannel.MapMode.READ_ONLY, offset, tableBytes)
+                        .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+                crackSums[iceSheet] = channel.map(FileChannel.MapMode.READ_ONLY, offset + tableBytes, tableBytes)
+                        .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+                offset += 2 * tableBytes;
+            }
+            return new IceSummedAreaTable(rules, rows, columns, weakSpotSums, crackSums);
+        }
+    }
+
+    /**
+     * Returns the number of ice sheets in the tables.
+     *
+     * @return The number of ice sheets.
+     */
+    public int sheetCount() {
+        return rows.length;
+    }
+
+    /**
+     * Returns the number of rows of an ice sheet.
+     *
+     * @param iceSheet The sheet number.
+     * @return The number of rows of the sheet.
+     */
+    public int rows(int iceSheet) {
+        return rows[iceSheet];
+    }
+
+    /**
+     * Returns the number of columns of an ice sheet.
+     *
+     * @param iceSheet The sheet number.
+     * @return The number of columns of the sheet.
+     */
+    public int columns(int iceSheet) {
+        return columns[iceSheet];
+    }
+
+    public IceDetectionRules getRules() {
+        return rules;
+    }
+
+    /**
+     * Returns the number of weak spots in a rectangle of a sheet.
+     *
+     * @param iceSheet The sheet number.
+     * @param firstRow The top row of the rectangle.
+     * @param firstColumn The left column of the rectangle.
+     * @param lastRow The bottom row of the rectangle (inclusive).
+     * @param lastColumn The right column of the rectangle (inclusive).
+     * @return The number of weak spots in the rectangle.
+     */
+    public int countWeakSpots(int iceSheet, int firstRow, int firstColumn, int lastRow, int lastColumn) {
+        return count(weakSpotSums[iceSheet], iceSheet, firstRow, firstColumn, lastRow, lastColumn);
+    }
+
+    /**
+     * Returns the number of cracks in a rectangle of a sheet.
+     *
+     * @param iceSheet The sheet number.
+     * @param firstRow The top row of the rectangle.
+     * @param firstColumn The left column of the rectangle.
+     * @param lastRow The bottom row of the rectangle (inclusive).
+     * @param lastColumn The right column of the rectangle (inclusive).
+     * @return The number of cracks in the rectangle.
+     */
+    public int countCracks(int iceSheet, int firstRow, int firstColumn, int lastRow, int lastColumn) {
+        return count(crackSums[iceSheet], iceSheet, firstRow, firstColumn, lastRow, lastColumn);
+    }
+
+    /**
+     * Adds up a rectangle from the four table entries at its corners.
+     */
+    private int count(IntBuffer table, int iceSheet, int firstRow, int firstColumn, int lastRow, int lastColumn) {
+        if (firstRow < 0 || firstColumn < 0 || lastRow >= rows[iceSheet] || lastColumn >= columns[iceSheet]) {
+            throw new IndexOutOfBoundsException("Rectangle (" + firstRow + "," + firstColumn + ")-(" + lastRow + "," + lastColumn
+                    + ") is outside sheet " + iceSheet + " of " + rows[iceSheet] + "x" + columns[iceSheet]);
+        }
+        if (lastRow < firstRow || lastColumn < firstColumn) {
+            return 0;
+        }
+        int width = columns[iceSheet] + 1;
+        int top = firstRow * width;
+        int bottom = (lastRow + 1) * width;
+        return table.get(bottom + lastColumn + 1) - table.get(bottom + firstColumn)
+                - table.get(top + lastColumn + 1) + table.get(top + firstColumn);
+    }
+
+    /**
+     * Writes everything in the buffer to the channel and clears the buffer.
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,418 @@
+import java.util.Arrays;
+
+/**
+ * The LiveIceModel class keeps the ice sheets together with their current weak spots and cracks,
+ * and updates them when cells change instead of analyzing every sheet again.
+ * A changed cell can only change whether it is a weak spot, and whether it and its neighbours are
+ * cracks, so each update re-checks those nine cells and nothing else. The per-sheet weak spot and
+ * crack counts are kept up to date, and the sheet with the most weak spots is found in a small
+ * tournament tree over the sheets. The cost of a batch of updates grows with the number of updated
+ * cells, not with the size of the sheets.
+ *
+ * The weak spots and cracks are held as one bit per cell. Every sheet also keeps a sorted list of its
+ * cracks, and the cells whose crack bit flipped since that list was built. An update only appends to
+ * the flipped cells, and getReport merges them into the lists of the sheets that changed. A sheet is also
+ * merged once its flipped cells outnumber its cracks, so each merge is paid for by as many updates as it
+ * moves cracks, and neither an update nor a report ever scans the bits.
+ * Created on October 17, 2026
+ * @author Maharshi Patel
+ */
+public class LiveIceModel {
+
+    // Flipped cells a sheet can hold before they are merged, whatever the size of its crack list.
+    private static final int MINIMUM_FLIPPED = 64;
+
+    private final IceSheetStore dataStore;
+    private final IceDetectionRules rules;
+
+    // Weak spot and crack bits of every sheet, one bit per cell in row-major order.
+    private final long[][] weakSpotBits;
+    private final long[][] crackBits;
+
+    // Cracks of every sheet as row << 32 | column, in row and column order, as of the last merge.
+    private final long[][] crackLists;
+    // Cells of every sheet whose crack bit flipped since the last merge, in the same form and in any order.
+    private final long[][] flippedCracks;
+    private final int[] flippedCounts;
+
+    private final int[] weakSpotsPerSheet;
+    private final int[] cracksPerSheet;
+    private long totalWeakSpots;
+    private long totalCracks;
+
+    // Tournament tree over the sheets, each node holds the sheet with the most weak spots below it
+    // (the first such sheet on a tie). Leaves start at index leaves, the winner is at index 1.
+    private final int leaves;
+    private final int[] maximumTree;
+
+    /**
+     * Creates a live model of the sheets in a store using the original detection rules.
+     *
+     * @param dataStore The store containing ice sheet data, updates are written into it.
+     */
+    public LiveIceModel(IceSheetStore dataStore) {
+        this(dataStore, IceDetectionRules.DEFAULT);
+    }
+
+    /**
+     * Creates a live model of the sheets in a store, analyzing every sheet once.
+     * The store must be writable, so a memory-mapped binary file has to be loaded into a new store first.
+     *
+     * @param dataStore The store containing ice sheet data, updates are written into it.
+     * @param rules The rules that decide the weak spots and cracks.
+     */
+    public LiveIceModel(IceSheetStore dataStore, IceDetectionRules rules) {
+        this.dataStore = dataStore;
+        this.rules = rules;
+
+        int iceSheets = dataStore.sheetCount();
+        weakSpotBits = new long[iceSheets][];
+        crackBits = new long[iceSheets][];
+        crackLists = new long[iceSheets][];
+        flippedCracks = new long[iceSheets][];
+        flippedCounts = new int[iceSheets];
+        weakSpotsPerSheet = new int[iceSheets];
+        cracksPerSheet = new int[iceSheets];
+
+        IceKernel kernel = rules.compile();
+        for (int iceSheet = 0; iceSheet < iceSheets; iceSheet++) {
+            int rows = dataStore.rows(iceSheet);
+            int columns = dataStore.columns(iceSheet);
+            int words = (int) (((long) rows * columns + 63) >>> 6);
+            weakSpotBits[iceSheet] = new long[words];
+            crackBits[iceSheet] = new long[words];
+
+            // Find the cracks with the compiled kernel, then mark the weak spots cell by cell.
+            LocationList cracks = new LocationList();
+            weakSpotsPerSheet[iceSheet] = kernel.scanRows(dataStore, iceSheet, 0, rows, cracks);
+            crackLists[iceSheet] = new long[cracks.size()];
+            flippedCracks[iceSheet] = new long[MINIMUM_FLIPPED];
+            for (int crack = 0; crack < cracks.size(); crack++) {
+                setBit(crackBits[iceSheet], cracks.row(crack) * columns + cracks.column(crack));
+                crackLists[iceSheet][crack] = crackKey(cracks.row(crack), cracks.column(crack));
+            }
+            cracksPerSheet[iceSheet] = cracks.size();
+
+            for (int row = 0; row < rows; row++) {
+                for (int column = 0; column < columns; column++) {
+                    if (rules.isWeakSpot(dataStore.get(iceSheet, row, column))) {
+                        setBit(weakSpotBits[iceSheet], row * columns + column);
+                    }
+                }
+            }
+            totalWeakSpots += weakSpotsPerSheet[iceSheet];
+            totalCracks += cracksPerSheet[iceSheet];
+        }
+
+        int size = 1;
+        while (size < Math.max(1, iceSheets)) {
+            size <<= 1;
+        }
+        leaves = size;
+        maximumTree = new int[2 * size];
+        Arrays.fill(maximumTree, -1);
+        for (int iceSheet = 0; iceSheet < iceSheets; iceSheet++) {
+            maximumTree[leaves + iceSheet] = iceSheet;
+        }
+        for (int node = leaves - 1; node > 0; node--) {
+            maximumTree[node] = winner(maximumTree[2 * node], maximumTree[2 * node + 1]);
+        }
+    }
+
+    /**
+     * Changes the value of one cell and updates the weak spots and cracks around it.
+     *
+     * @param iceSheet The sheet number.
+     * @param row The row of the cell.
+     * @param column The column of the cell.
+     * @param value The new value of the cell.
+     * @throws IndexOutOfBoundsException If the sheet, row or column is not within the store.
+     */
+    public void update(int iceSheet, int row, int column, int value) {
+        if (iceSheet < 0 || iceSheet >= dataStore.sheetCount()) {
+            throw new IndexOutOfBoundsException("Sheet " + iceSheet + " is not within 0 to " + dataStore.sheetCount());
+        }
+        int rows = dataStore.rows(iceSheet);
+        int columns = dataStore.columns(iceSheet);
+        if (row < 0 || row >= rows || column < 0 || column >= columns) {
+            throw new IndexOutOfBoundsException("Cell (" + row + "," + column + ") is not within sheet " + iceSheet
+                    + " of " + rows + "x" + columns);
+        }
+
+        if (dataStore.get(iceSheet, row, column) == value) {
+            return;
+        }
+        dataStore.set(iceSheet, row, column, value);
+
+        long[] weakSpots = weakSpotBits[iceSheet];
+        int cell = row * columns + column;
+
+        // The cell itself may have become or stopped being a weak spot.
+        boolean weak = rules.isWeakSpot(value);
+        if (weak != getBit(weakSpots, cell)) {
+            int change = weak ? 1 : -1;
+            flipBit(weakSpots, cell);
+            weakSpotsPerSheet[iceSheet] += change;
+            totalWeakSpots += change;
+            updateMaximum(iceSheet);
+        }
+
+        // Its new value may start or stop a crack at the cell and at any of its neighbours.
+        for (int neighbourRow = Math.max(0, row - 1); neighbourRow <= Math.min(rows - 1, row + 1); neighbourRow++) {
+            for (int neighbourColumn = Math.max(0, column - 1); neighbourColumn <= Math.min(columns - 1, column + 1); neighbourColumn++) {
+                recheckCrack(iceSheet, neighbourRow, neighbourColumn);
+            }
+        }
+    }
+
+    /**
+     * Applies a batch of cell updates in order.
+     *
+     * @param updates The updates, each one {sheet, row, column, new value}.
+     */
+    public void applyUpdates(int[][] updates) {
+        for (int[] update : updates) {
+            update(update[0], update[1], update[2], update[3]);
+        }
+    }
+
+    /**
+     * Returns the current value of a cell.
+     *
+     * @param iceSheet The sheet number.
+     * @param row The row of the cell.
+     * @param column The column of the cell.
+     * @return The value of the cell.
+     */
+    public int get(int iceSheet, int row, int column) {
+        return dataStore.get(iceSheet, row, column);
+    }
+
+    /**
+     * Returns true if a cell is currently a weak spot.
+     *
+     * @param iceSheet The sheet number.
+     * @param row The row of the cell.
+     * @param column The column of the cell.
+     * @return True for a weak spot.
+     */
+    public boolean isWeakSpot(int iceSheet, int row, int column) {
+        return getBit(weakSpotBits[iceSheet], row * dataStore.columns(iceSheet) + column);
+    }
+
+    /**
+     * Returns true if a cell is currently a crack.
+     *
+     * @param iceSheet The sheet number.
+     * @param row The row of the cell.
+     * @param column The column of the cell.
+     * @return True for a crack.
+     */
+    public boolean isCrack(int iceSheet, int row, int column) {
+        return getBit(crackBits[iceSheet], row * dataStore.columns(iceSheet) + column);
+    }
+
+    /**
+     * Returns the number of weak spots on a sheet.
+     *
+     * @param iceSheet The sheet number.
+     * @return The weak spots of the sheet.
+     */
+    public int getWeakSpots(int iceSheet) {
+        return weakSpotsPerSheet[iceSheet];
+    }
+
+    /**
+     * Returns the number of cracks on a sheet.
+     *
+     * @param iceSheet The sheet number.
+     * @return The cracks of the sheet.
+     */
+    public int getCracks(int iceSheet) {
+        return cracksPerSheet[iceSheet];
+    }
+
+    public long getTotalWeakSpots() {
+        return totalWeakSpots;
+    }
+
+    public long getTotalCracks() {
+        return totalCracks;
+    }
+
+    /**
+     * Returns the first sheet with the highest number of weak spots, or -1 when there are no sheets.
+     *
+     * @return The sheet number.
+     */
+    public int getMaximumWeakSpotsSheet() {
+        return maximumTree[1];
+    }
+
+    /**
+     * Returns the highest number of weak spots on a sheet.
+     *
+     * @return The weak spots of the sheet with the most weak spots, 0 when there are no sheets.
+     */
+    public int getMaximumWeakSpots() {
+        int sheet = maximumTree[1];
+        return sheet < 0 ? 0 : weakSpotsPerSheet[sheet];
+    }
+
+    /**
+     * Returns the current weak spot counts and cracks, in the same form as a full analysis.
+     * The weak spot locations themselves are not collected. Every call returns a new report,
+     * so a caller may change it without changing the model or the reports of other callers.
+     *
+     * @return The weak spot counts and the cracks of all sheets, in sheet, row and column order.
+     */
+    public CrackReport getReport() {
+        LocationList cracks = new LocationList();
+        for (int iceSheet = 0; iceSheet < crackLists.length; iceSheet++) {
+            if (flippedCounts[iceSheet] > 0) {
+                mergeFlippedCracks(iceSheet);
+            }
+            for (long crack : crackLists[iceSheet]) {
+                cracks.add(iceSheet, (int) (crack >>> 32), (int) crack);
+            }
+        }
+        return new CrackReport(new WeakSpotReport(weakSpotsPerSheet.clone(), null), cracks);
+    }
+
+    /**
+     * Works out again whether one cell is a crack and updates its bit and the counts.
+     */
+    private void recheckCrack(int iceSheet, int row, int column) {
+        int rows = dataStore.rows(iceSheet);
+        int columns = dataStore.columns(iceSheet);
+        int cell = row * columns + column;
+
+        // Sheets with a single row or column never report cracks, as in IceDataAnalysis.cracks.
+        boolean crack = rows > 1 && columns > 1 && getBit(weakSpotBits[iceSheet], cell)
+                && hasCrackNeighbour(iceSheet, row, column, rows, columns);
+
+        if (crack != getBit(crackBits[iceSheet], cell)) {
+            flipBit(crackBits[iceSheet], cell);
+            int change = crack ? 1 : -1;
+            cracksPerSheet[iceSheet] += change;
+            totalCracks += change;
+            addFlippedCrack(iceSheet, crackKey(row, column));
+        }
+    }
+
+    /**
+     * Records a cell whose crack bit flipped. When a sheet has more flipped cells than cracks, they are
+     * merged right away, so the flipped cells never take more room than the sheet's own crack list.
+     */
+    private void addFlippedCrack(int iceSheet, long key) {
+        int count = flippedCounts[iceSheet];
+        long[] flipped = flippedCracks[iceSheet];
+        if (count == flipped.length) {
+            flipped = flippedCracks[iceSheet] = Arrays.copyOf(flipped, count * 2);
+        }
+        flipped[count] = key;
+        flippedCounts[iceSheet] = count + 1;
+        if (count + 1 >= Math.max(MINIMUM_FLIPPED, crackLists[iceSheet].length)) {
+            mergeFlippedCracks(iceSheet);
+        }
+    }
+
+    /**
+     * Rebuilds the sorted crack list of a sheet from its last list and the cells flipped since then.
+     * A crack of the last list that was not flipped is still a crack, and a flipped cell is looked up
+     * in the crack bits, so the merge costs the length of the list plus sorting the flipped cells.
+     */
+    private void mergeFlippedCracks(int iceSheet) {
+        long[] previous = crackLists[iceSheet];
+        long[] flipped = flippedCracks[iceSheet];
+        int flippedCount = flippedCounts[iceSheet];
+        int columns = dataStore.columns(iceSheet);
+        Arrays.sort(flipped, 0, flippedCount);
+
+        long[] merged = new long[cracksPerSheet[iceSheet]];
+        int size = 0;
+        int kept = 0;
+        int next = 0;
+        while (kept < previous.length || next < flippedCount) {
+            if (next == flippedCount || (kept < previous.length && previous[kept] < flipped[next])) {
+                merged[size++] = previous[kept++];
+                continue;
+            }
+            // A cell may have flipped several times, its crack bit tells where it ended up.
+            long key = flipped[next];
+            while (next < flippedCount && flipped[next] == key) {
+                next++;
+            }
+            if (kept < previous.length && previous[kept] == key) {
+                kept++;
+            }
+            if (getBit(crackBits[iceSheet], (int) (key >>> 32) * columns + (int) key)) {
+                merged[size++] = key;
+            }
+        }
+        crackLists[iceSheet] = merged;
+        flippedCounts[iceSheet] = 0;
+        if (flipped.length > Math.max(MINIMUM_FLIPPED, merged.length)) {
+            flippedCracks[iceSheet] = new long[MINIMUM_FLIPPED];
+        }
+    }
+
+    /**
+     * Returns true if a neighbour of the cell is divisible by the crack divisor.
+     */
+    private boolean hasCrackNeighbour(int iceSheet, int row, int column, int rows, int columns) {
+        boolean diagonals = rules.getConnectivity() == 8;
+        for (int neighbourRow = Math.max(0, row - 1); neighbourRow <= Math.min(rows - 1, row + 1); neighbourRow++) {
+            for (int neighbourColumn = Math.max(0, column - 1); neighbourColumn <= Math.min(columns - 1, column + 1); neighbourColumn++) {
+                boolean center = neighbourRow == row && neighbourColumn == column;
+                boolean diagonal = neighbourRow != row && neighbourColumn != column;
+                if (center || (diagonal && !diagonals)) {
+                    continue;
+                }
+                if (rules.isCrackNeighbour(dataStore.get(iceSheet, neighbourRow, neighbourColumn))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Moves a sheet whose weak spot count changed up the tournament tree.
+     */
+    private void updateMaximum(int iceSheet) {
+        for (int node = (leaves + iceSheet) >>> 1; node > 0; node >>>= 1) {
+            maximumTree[node] = winner(maximumTree[2 * node], maximumTree[2 * node + 1]);
+        }
+    }
+
+    /**
+     * Returns the sheet with more weak spots, or the lower sheet number on a tie.
+     * Empty tree slots (-1) always lose.
+     */
+    private int winner(int firstSheet, int secondSheet) {
+        if (firstSheet < 0 || secondSheet < 0) {
+            return Math.max(firstSheet, secondSheet);
+        }
+        return weakSpotsPerSheet[secondSheet] > weakSpotsPerSheet[firstSheet] ? secondSheet : firstSheet;
+    }
+
+    /**
+     * Returns the key of a crack in the crack list of its sheet, which sorts in row and column order.
+     */
+    private static long crackKey(int row, int column) {
+        return ((long) row << 32) | column;
+    }
+
+    private static boolean getBit(long[] bits, int cell) {
+        return (bits[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    private static void setBit(long[] bits, int cell) {
+        bits[cell >>> 6] |= 1L << cell;
+    }
+
+    private static void flipBit(long[] bits, int cell) {
+        bits[cell >>> 6] ^= 1L << cell;
+    }
+}
@@ -0,0 +1,148 @@
+import java.util.Arrays;
+
+/**
+ * The LocationList class is a growable list of cell locations, such as weak spots or cracks.
+ * The locations are kept in two primitive arrays, the sheet and row of each location in one long
+ * and its column in an int, so a list of millions of cracks takes no object per crack while every
+ * coordinate keeps the full int range of the sheets it came from.
+ * Created on October 17, 2026
+ * @author Maharshi Patel
+ */
+public class LocationList {
+
+    // Sheet number in the high half and row in the low half of each entry, and the column of each entry.
+    private long[] sheetRows;
+    private int[] columns;
+    private int size;
+
+    /**
+     * Creates an empty list.
+     */
+    public LocationList() {
+        sheetRows = new long[16];
+        columns = new int[16];
+    }
+
+    /**
+     * Adds a location to the end of the list.
+     *
+     * @param iceSheet The sheet number of the location.
+     * @param row The row of the location.
+     * @param column The column of the location.
+     */
+    public void add(int iceSheet, int row, int column) {
+        if (size == sheetRows.length) {
+            grow(size * 2);
+        }
+        sheetRows[size] = ((long) iceSheet << 32) | (row & 0xFFFFFFFFL);
+        columns[size] = column;
+        size++;
+    }
+
+    /**
+     * Adds every location of another list to the end of this list.
+     *
+     * @param other The list to append.
+     */
+    public void addAll(LocationList other) {
+        if (size + other.size > sheetRows.length) {
+            grow(Math.max(sheetRows.length * 2, size + other.size));
+        }
+        System.arraycopy(other.sheetRows, 0, sheetRows, size, other.size);
+        System.arraycopy(other.columns, 0, columns, size, other.size);
+        size += other.size;
+    }
+
+    /**
+     * Returns the number of locations in the list.
+     *
+     * @return The number of locations.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the sheet number of a location.
+     *
+     * @param index The position of the location in the list.
+     * @return The sheet number.
+     */
+    public int sheet(int index) {
+        checkIndex(index);
+        return (int) (sheetRows[index] >>> 32);
+    }
+
+    /**
+     * Returns the row of a location.
+     *
+     * @param index The position of the location in the list.
+     * @return The row.
+     */
+    public int row(int index) {
+        checkIndex(index);
+        return (int) sheetRows[index];
+    }
+
+    /**
+     * Returns the column of a location.
+     *
+     * @param index The position of the location in the list.
+     * @return The column.
+     */
+    public int column(int index) {
+        checkIndex(index);
+        return columns[index];
+    }
+
+    /**
+     * Passes every location of the list to the consumer, in list order.
+     *
+     * @param consumer The consumer receiving the sheet, row and column of each location.
+     */
+    public void forEach(LocationConsumer consumer) {
+        for (int i = 0; i < size; i++) {
+            consumer.accept((int) (sheetRows[i] >>> 32), (int) sheetRows[i], columns[i]);
+        }
+    }
+
+    /**
+     * The LocationConsumer interface receives the locations of a list from forEach.
+     */
+    public interface LocationConsumer {
+
+        /**
+         * Receives one location.
+         *
+         * @param iceSheet The sheet number.
+         * @param row The row.
+         * @param column The column.
+         */
+        void accept(int iceSheet, int row, int column);
+    }
+
+    /**
+     * Converts the list into the 2D array format returned by IceDataAnalysis.cracks.
+     * This creates one int[3] per location and is only meant for small lists.
+     *
+     * @return A 2D array listing the locations with sheet, row, and column coordinates.
+     */
+    public int[][] toArray() {
+        int[][] locationsArray = new int[size][];
+        for (int i = 0; i < size; i++) {
+            locationsArray[i] = new int[]{(int) (sheetRows[i] >>> 32), (int) sheetRows[i], columns[i]};
+        }
+        return locationsArray;
+    }
+
+    private void checkIndex(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+    }
+
+    private void grow(int capacity) {
+        sheetRows = Arrays.copyOf(sheetRows, capacity);
+        columns = Arrays.copyOf(columns, capacity);
+    }
+}
@@ -0,0 +1,171 @@
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The ParallelIceAnalysis class finds the weak spots and cracks of all ice sheets on several
+ * cores with a ForkJoin pool. The work is split by sheet, and sheets with more cells than the
+ * band size are split further into bands of rows, so a few huge sheets still keep every core busy.
+ * Each band reads the row just above and just below it as neighbours (a one-row overlap), and the
+ * band results are joined in sheet and row order, so the weak spot counts and the crack list are
+ * identical to the sequential result of the same IceKernel, including the order of the cracks.
+ * Created on October 17, 2026
+ * @author Maharshi Patel
+ */
+public class ParallelIceAnalysis {
+
+    // Default number of cells in one band of rows (about one million cells).
+    public static final int DEFAULT_BAND_CELLS = 1 << 20;
+
+    private final ForkJoinPool pool;
+    private final int bandCells;
+    private final IceKernel kernel;
+
+    /**
+     * Creates a parallel analysis using the given number of worker threads.
+     *
+     * @param parallelism The number of worker threads.
+     */
+    public ParallelIceAnalysis(int parallelism) {
+        this(parallelism, DEFAULT_BAND_CELLS);
+    }
+
+    /**
+     * Creates a parallel analysis using the given number of worker threads and band size.
+     *
+     * @param parallelism The number of worker threads.
+     * @param bandCells The number of cells above which a sheet is split into bands of rows.
+     */
+    public ParallelIceAnalysis(int parallelism, int bandCells) {
+        this(parallelism, bandCells, IceKernelBackend.FUSED);
+    }
+
+    /**
+     * Creates a parallel analysis using the given number of worker threads, band size and kernel.
+     *
+     * @param parallelism The number of worker threads.
+     * @param bandCells The number of cells above which a sheet is split into bands of rows.
+     * @param kernel The kernel used to scan each band.
+     */
+    public ParallelIceAnalysis(int parallelism, int bandCells, IceKernel kernel) {
+        this(new ForkJoinPool(parallelism), bandCells, kernel);
+    }
+
+    /**
+     * Creates a parallel analysis running on an existing pool, so it can share the pool's workers
+     * with other work. Called from a task of that pool, the bands are forked inside the calling task.
+     *
+     * @param pool The pool running the bands.
+     * @param bandCells The number of cells above which a sheet is split into bands of rows.
+     * @param kernel The kernel used to scan each band.
+     */
+    public ParallelIceAnalysis(ForkJoinPool pool, int bandCells, IceKernel kernel) {
+        if (bandCells < 1) {
+            throw new IllegalArgumentException("Band size must be at least one cell: " + bandCells);
+        }
+        this.pool = pool;
+        this.bandCells = bandCells;
+        this.kernel = kernel;
+    }
+
+    /**
+     * Finds the weak spots and cracks of every ice sheet in the store.
+     *
+     * The weak spot locations themselves are not collected.
+     *
+     * @param dataStore The store containing ice sheet data.
+     * @return The weak spot counts and the cracks of all sheets, in sheet, row and column order.
+     */
+    public CrackReport analyze(IceSheetStore dataStore) {
+        // Describe the work as a list of bands, each band is a range of rows of one sheet.
+        ArrayList<int[]> bands = new ArrayList<>();
+        for (int iceSheet = 0; iceSheet < dataStore.sheetCount(); iceSheet++) {
+            int rows = dataStore.rows(iceSheet);
+            int bandRows = Math.max(1, bandCells / Math.max(1, dataStore.columns(iceSheet)));
+
+            if (rows == 0) {
+                bands.add(new int[]{iceSheet, 0, 0});
+            }
+            for (int fromRow = 0; fromRow < rows; fromRow += bandRows) {
+                bands.add(new int[]{iceSheet, fromRow, Math.min(rows, fromRow + bandRows)});
+            }
+        }
+
+        // Scan all the bands in parallel.
+        int[] bandWeakSpots = new int[bands.size()];
+        LocationList[] bandCracks = new LocationList[bands.size()];
+        BandTask allBands = new BandTask(kernel, dataStore, bands, bandWeakSpots, bandCracks, 0, bands.size());
+        if (ForkJoinTask.getPool() == pool) {
+            allBands.invoke();
+        }
+        else {
+            pool.invoke(allBands);
+        }
+
+        // Join the band results in band order, which is sheet and row order.
+        LocationList cracks = new LocationList();
+        int[] weakSpotsPerSheet = new int[dataStore.sheetCount()];
+        for (int band = 0; band < bands.size(); band++) {
+            weakSpotsPerSheet[bands.get(band)[0]] += bandWeakSpots[band];
+            cracks.addAll(bandCracks[band]);
+        }
+        return new CrackReport(new WeakSpotReport(weakSpotsPerSheet, null), cracks);
+    }
+
+    /**
+     * Returns the number of worker threads of the pool.
+     *
+     * @return The parallelism level.
+     */
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Stops the worker threads of the pool.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * The BandTask class scans a range of bands, splitting the range in half until
+     * a single band is left, so idle workers can steal the other half.
+     */
+    @SuppressWarnings("serial")
+    private static class BandTask extends RecursiveAction {
+        private final IceKernel kernel;
+        private final IceSheetStore dataStore;
+        private final ArrayList<int[]> bands;
+        private final int[] bandWeakSpots;
+        private final LocationList[] bandCracks;
+        private final int from;
+        private final int to;
+
+        BandTask(IceKernel kernel, IceSheetStore dataStore, ArrayList<int[]> bands, int[] bandWeakSpots, LocationList[] bandCracks, int from, int to) {
+            this.kernel = kernel;
+            this.dataStore = dataStore;
+            this.bands = bands;
+            this.bandWeakSpots = bandWeakSpots;
+            this.bandCracks = bandCracks;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new BandTask(kernel, dataStore, bands, bandWeakSpots, bandCracks, from, middle),
+                        new BandTask(kernel, dataStore, bands, bandWeakSpots, bandCracks, middle, to));
+                return;
+            }
+            if (from < to) {
+                int[] band = bands.get(from);
+                bandCracks[from] = new LocationList();
+                bandWeakSpots[from] = kernel.scanRows(dataStore, band[0], band[1], band[2], bandCracks[from]);
+            }
+        }
+    }
+}
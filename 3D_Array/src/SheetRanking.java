@@ -0,0 +1,233 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The SheetRanking class keeps the K worst ice sheets by weak spots, by cracks and by the fraction
+ * of weak spots that are cracks, while the sheets are analyzed one after another. Each ranking is a
+ * bounded min-heap of K sheets whose root is the least bad of them, so a new sheet only has to beat
+ * the root to get in, and only 3 * K sheets are remembered however many sheets there are.
+ *
+ * Ties are broken by sheet number, the lower sheet ranking first, as the first sheet wins a tie
+ * in WeakSpotReport. Fractions are compared exactly by cross-multiplying the counts, and a sheet
+ * without weak spots has a fraction of 0. The ranking is a SheetListener for the streaming analysis,
+ * takes the results of a sequential or parallel analysis through offerAll, and is thread-safe.
+ * Created on October 17, 2026
+ * @author Maharshi Patel
+ */
+public class SheetRanking implements StreamingIceAnalysis.SheetListener {
+
+    /**
+     * The Measure enum lists the measures the sheets are ranked by.
+     */
+    public enum Measure {
+        WEAK_SPOTS, CRACKS, CRACK_FRACTION
+    }
+
+    /**
+     * The RankedSheet class holds the counts of one sheet in a ranking.
+     */
+    public static class RankedSheet {
+        private final int sheet;
+        private final int weakSpots;
+        private final int cracks;
+
+        RankedSheet(int sheet, int weakSpots, int cracks) {
+            this.sheet = sheet;
+            this.weakSpots = weakSpots;
+            this.cracks = cracks;
+        }
+
+        public int getSheet() {
+            return sheet;
+        }
+
+        public int getWeakSpots() {
+            return weakSpots;
+        }
+
+        public int getCracks() {
+            return cracks;
+        }
+
+        public double getCrackFraction() {
+            return weakSpots == 0 ? 0 : (double) cracks / weakSpots;
+        }
+    }
+
+    private final int capacity;
+    private final BoundedHeap[] heaps;
+
+    /**
+     * Creates an empty ranking of the K worst sheets.
+     *
+     * @param capacity The number of sheets kept for each measure.
+     */
+    public SheetRanking(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("A ranking must keep at least one sheet: " + capacity);
+        }
+        this.capacity = capacity;
+        heaps = new BoundedHeap[Measure.values().length];
+        for (Measure measure : Measure.values()) {
+            heaps[measure.ordinal()] = new BoundedHeap(measure, capacity);
+        }
+    }
+
+    /**
+     * Offers the counts of one sheet to every ranking.
+     *
+     * @param iceSheet The sheet number.
+     * @param weakSpots The number of weak spots on the sheet.
+     * @param cracks The number of cracks on the sheet.
+     */
+    public synchronized void offer(int iceSheet, int weakSpots, int cracks) {
+        for (BoundedHeap heap : heaps) {
+            heap.offer(iceSheet, weakSpots, cracks);
+        }
+    }
+
+    @Override
+    public void sheetAnalyzed(int iceSheet, int weakSpots, LocationList sheetCracks) {
+        offer(iceSheet, weakSpots, sheetCracks.size());
+    }
+
+    /**
+     * Offers every sheet of an analysis, counting the cracks of each sheet from the crack list.
+     *
+     * @param report The weak spot counts and the cracks of all sheets, in sheet order.
+     */
+    public void offerAll(CrackReport report) {
+        WeakSpotReport weakSpots = report.getWeakSpots();
+        LocationList cracks = report.getCracks();
+        int crack = 0;
+        for (int iceSheet = 0; iceSheet < weakSpots.getSheetCount(); iceSheet++) {
+            int firstCrack = crack;
+            while (crack < cracks.size() && cracks.sheet(crack) == iceSheet) {
+                crack++;
+            }
+            offer(iceSheet, weakSpots.getWeakSpots(iceSheet), crack - firstCrack);
+        }
+    }
+
+    /**
+     * Returns the number of sheets kept for each measure.
+     *
+     * @return The K of the ranking.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the worst sheets by a measure, the worst first.
+     *
+     * @param measure The measure to rank by.
+     * @return Up to K sheets.
+     */
+    public synchronized List<RankedSheet> getTop(Measure measure) {
+        return heaps[measure.ordinal()].sorted();
+    }
+
+    /**
+     * The BoundedHeap class is a min-heap of at most K sheets for one measure, kept in parallel int arrays.
+     * The root is the sheet that would leave the heap first.
+     */
+    private static class BoundedHeap {
+        private final Measure measure;
+        private final int[] sheets;
+        private final int[] weakSpots;
+        private final int[] cracks;
+        private int size;
+
+        BoundedHeap(Measure measure, int capacity) {
+            this.measure = measure;
+            sheets = new int[capacity];
+            weakSpots = new int[capacity];
+            cracks = new int[capacity];
+        }
+
+        void offer(int iceSheet, int sheetWeakSpots, int sheetCracks) {
+            if (size < sheets.length) {
+                put(size, iceSheet, sheetWeakSpots, sheetCracks);
+                siftUp(size++);
+            }
+            else if (compare(iceSheet, sheetWeakSpots, sheetCracks, 0) > 0) {
+                put(0, iceSheet, sheetWeakSpots, sheetCracks);
+                siftDown(0);
+            }
+        }
+
+        /**
+         * Returns the sheets of the heap from the worst to the least bad.
+         */
+        List<RankedSheet> sorted() {
+            List<RankedSheet> ranking = new ArrayList<>(size);
+            for (int slot = 0; slot < size; slot++) {
+                ranking.add(new RankedSheet(sheets[slot], weakSpots[slot], cracks[slot]));
+            }
+            ranking.sort((first, second) -> compare(second.sheet, second.weakSpots, second.cracks,
+                    first.sheet, first.weakSpots, first.cracks));
+            return ranking;
+        }
+
+        /**
+         * Returns a positive number if the sheet ranks worse than the sheet in a slot, negative if it ranks better.
+         */
+        private int compare(int iceSheet, int sheetWeakSpots, int sheetCracks, int slot) {
+            return compare(iceSheet, sheetWeakSpots, sheetCracks, sheets[slot], weakSpots[slot], cracks[slot]);
+        }
+
+        private int compare(int firstSheet, int firstWeakSpots, int firstCracks, int secondSheet, int secondWeakSpots, int secondCracks) {
+            int order = switch (measure) {
+                case WEAK_SPOTS -> Integer.compare(firstWeakSpots, secondWeakSpots);
+                case CRACKS -> Integer.compare(firstCracks, secondCracks);
+                // a/b against c/d is a*d against c*b, a sheet without weak spots counts as 0/1.
+                case CRACK_FRACTION -> Long.compare((long) (firstWeakSpots == 0 ? 0 : firstCracks) * Math.max(1, secondWeakSpots),
+                        (long) (secondWeakSpots == 0 ? 0 : secondCracks) * Math.max(1, firstWeakSpots));
+            };
+            // The lower sheet number ranks worse on a tie.
+            return order != 0 ? order : Integer.compare(secondSheet, firstSheet);
+        }
+
+        private void siftUp(int slot) {
+            while (slot > 0) {
+                int parent = (slot - 1) >>> 1;
+                if (compare(sheets[slot], weakSpots[slot], cracks[slot], parent) >= 0) {
+                    return;
+                }
+                swap(slot, parent);
+                slot = parent;
+            }
+        }
+
+        private void siftDown(int slot) {
+            while (true) {
+                int smallest = slot;
+                for (int child = 2 * slot + 1; child <= 2 * slot + 2 && child < size; child++) {
+                    if (compare(sheets[child], weakSpots[child], cracks[child], smallest) < 0) {
+                        smallest = child;
+                    }
+                }
+                if (smallest == slot) {
+                    return;
+                }
+                swap(slot, smallest);
+                slot = smallest;
+            }
+        }
+
+        private void put(int slot, int iceSheet, int sheetWeakSpots, int sheetCracks) {
+            sheets[slot] = iceSheet;
+            weakSpots[slot] = sheetWeakSpots;
+            cracks[slot] = sheetCracks;
+        }
+
+        private void swap(int first, int second) {
+            int sheet = sheets[first];
+            int sheetWeakSpots = weakSpots[first];
+            int sheetCracks = cracks[first];
+            put(first, sheets[second], weakSpots[second], cracks[second]);
+            put(second, sheet, sheetWeakSpots, sheetCracks);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * The StreamingIceAnalysis class analyzes the ice sheets of a text file while the file is still
+ * being parsed. A parser thread reads one sheet at a time and hands it to the analysis through
+ * a bounded queue. Each sheet is scanned with an IceKernel as soon as it arrives, its results
+ * are passed to a SheetListener, and its cells are dropped. Parsing overlaps with the analysis,
+ * and only a few sheets (the queue capacity plus the sheets being parsed and analyzed) are held
+ * in memory at any time, instead of the whole file. A binary file has nothing to parse, so its
+ * memory-mapped sheets are scanned one after another and reported the same way.
+ * Created on October 17, 2026
+ * @author Maharshi Patel
+ */
+public class StreamingIceAnalysis {
+
+    // Default number of parsed sheets that may wait for the analysis.
+    public static final int DEFAULT_QUEUE_CAPACITY = 2;
+
+    // Queue entry telling the analysis that the parser has finished.
+    private static final int END_OF_SHEETS = -1;
+
+    private final int queueCapacity;
+    private final IceKernel kernel;
+
+    /**
+     * The SheetListener interface receives the results of each sheet as soon as it is analyzed.
+     * Sheets are reported in file order.
+     */
+    public interface SheetListener {
+
+        /**
+         * Called once for each ice sheet after it has been analyzed.
+         *
+         * @param iceSheet The sheet number.
+         * @param weakSpots The number of weak spots on the sheet.
+         * @param sheetCracks The cracks of the sheet, in row and column order.
+         */
+        void sheetAnalyzed(int iceSheet, int weakSpots, LocationList sheetCracks);
+    }
+
+    /**
+     * The ResultCollector class is a SheetListener that gathers the weak spot count of every sheet
+     * and the cracks of all sheets. The collected results are small compared to the sheets themselves.
+     */
+    public static class ResultCollector implements SheetListener {
+        private int[] weakSpotsPerSheet = new int[16];
+        private int sheets;
+        private final LocationList cracks = new LocationList();
+
+        @Override
+        public void sheetAnalyzed(int iceSheet, int weakSpots, LocationList sheetCracks) {
+            if (iceSheet >= weakSpotsPerSheet.length) {
+                weakSpotsPerSheet = Arrays.copyOf(weakSpotsPerSheet, Math.max(weakSpotsPerSheet.length * 2, iceSheet + 1));
+            }
+            weakSpotsPerSheet[iceSheet] = weakSpots;
+            sheets = Math.max(sheets, iceSheet + 1);
+            cracks.addAll(sheetCracks);
+        }
+
+        /**
+         * Returns the results of all the sheets analyzed so far.
+         * The weak spot locations themselves are not collected.
+         *
+         * @return The weak spot counts and the cracks, in sheet, row and column order.
+         */
+        public CrackReport getReport() {
+            return new CrackReport(new WeakSpotReport(Arrays.copyOf(weakSpotsPerSheet, sheets), null), cracks);
+        }
+    }
+
+    /**
+     * Creates a streaming analysis with the default queue capacity.
+     */
+    public StreamingIceAnalysis() {
+        this(DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Creates a streaming analysis with the given queue capacity.
+     *
+     * @param queueCapacity The number of parsed sheets that may wait for the analysis.
+     */
+    public StreamingIceAnalysis(int queueCapacity) {
+        this(queueCapacity, IceKernelBackend.FUSED);
+    }
+
+    /**
+     * Creates a streaming analysis with the given queue capacity and kernel.
+     *
+     * @param queueCapacity The number of parsed sheets that may wait for the analysis.
+     * @param kernel The kernel used to scan each sheet.
+     */
+    public StreamingIceAnalysis(int queueCapacity, IceKernel kernel) {
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be at least 1: " + queueCapacity);
+        }
+        this.queueCapacity = queueCapacity;
+        this.kernel = kernel;
+    }
+
+    /**
+     * Parses and analyzes the ice sheets of a text or binary file, reporting each sheet to the listener.
+     *
+     * @param textFilePath The path to the text or binary file containing the ice sheet data.
+     * @param listener The listener receiving the results of each sheet.
+     * @return The number of sheets analyzed, or -1 if an error occurs.
+     */
+    public int analyze(String textFilePath, SheetListener listener) {
+        if (IceBinaryFormat.isBinary(textFilePath)) {
+            IceSheetStore mappedStore = IceBinaryFormat.open(textFilePath);
+            if (mappedStore == null) {
+                return -1;
+            }
+            for (int iceSheet = 0; iceSheet < mappedStore.sheetCount(); iceSheet++) {
+                LocationList sheetCracks = new LocationList();
+                int weakSpots = kernel.scanRows(mappedStore, iceSheet, 0, mappedStore.rows(iceSheet), sheetCracks);
+                listener.sheetAnalyzed(iceSheet, weakSpots, sheetCracks);
+            }
+            return mappedStore.sheetCount();
+        }
+
+        BlockingQueue<Integer> parsedSheets = new ArrayBlockingQueue<>(queueCapacity);
+        SheetParser parser = new SheetParser(textFilePath, parsedSheets);
+
+        Thread parserThread = new Thread(parser, "ice-sheet-parser");
+        parserThread.setDaemon(true);
+        parserThread.start();
+
+        int analyzedSheets = 0;
+        try {
+            // Analyze each sheet as soon as the parser hands it over, then drop its cells.
+            int iceSheet = parsedSheets.take();
+            while (iceSheet != END_OF_SHEETS) {
+                LocationList sheetCracks = new LocationList();
+                int weakSpots = kernel.scanRows(parser.store, iceSheet, 0, parser.store.rows(iceSheet), sheetCracks);
+                parser.store.releaseSheet(iceSheet);
+
+                listener.sheetAnalyzed(iceSheet, weakSpots, sheetCracks);
+                analyzedSheets++;
+                iceSheet = parsedSheets.take();
+            }
+        }
+        catch (InterruptedException exception) {
+            parserThread.interrupt();
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+
+        if (parser.error != null) {
+            // Print an error message if the file is missing or malformed.
+            System.out.println(parser.error instanceof IOException ? parser.error.getMessage() : parser.error.toString());
+            return -1;
+        }
+        return analyzedSheets;
+    }
+
+    /**
+     * The SheetParser class reads the sheets of the file one at a time into a store,
+     * and puts the number of each parsed sheet on the queue.
+     */
+    private static class SheetParser implements Runnable {
+        private final String textFilePath;
+        private final BlockingQueue<Integer> parsedSheets;
+
+        // The store and the error are published to the analysis through the queue.
+        private IceSheetStore store;
+        private Throwable error;
+
+        SheetParser(String textFilePath, BlockingQueue<Integer> parsedSheets) {
+            this.textFilePath = textFilePath;
+            this.parsedSheets = parsedSheets;
+        }
+
+        @Override
+        public void run() {
+            try (IceDataTokenizer tokenizer = new IceDataTokenizer(Path.of(textFilePath))) {
+                // Read the number of ice sheets and create a store for them, the store only
+                // holds the cells of the sheets that are waiting for or under analysis.
+                int iceSheets = tokenizer.nextInt();
+                store = new IceSheetStore(iceSheets, false);
+
+                for (int iceSheet = 0; iceSheet < iceSheets; iceSheet++) {
+                    int rows = tokenizer.nextInt();
+                    int columns = tokenizer.nextInt();
+
+                    int[] cells = new int[Math.multiplyExact(rows, columns)];
+                    for (int cell = 0; cell < cells.length; cell++) {
+                        cells[cell] = tokenizer.nextInt();
+                    }
+                    store.putSheet(iceSheet, rows, columns, cells);
+
+                    // Wait here while the queue is full, which bounds the memory used.
+                    parsedSheets.put(iceSheet);
+                }
+            }
+            catch (IOException | RuntimeException | Error exception) {
+                // Malformed headers (negative or huge sizes) fail here too, the analysis reports them.
+                error = exception;
+            }
+            catch (InterruptedException exception) {
+                // The analysis was interrupted and no longer waits for the queue.
+                Thread.currentThread().interrupt();
+            }
+            finally {
+                // Always tell the analysis that parsing has stopped, or it would wait on the queue forever.
+                if (!Thread.currentThread().isInterrupted()) {
+                    try {
+                        parsedSheets.put(END_OF_SHEETS);
+                    }
+                    catch (InterruptedException exception) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        }
+    }
+}
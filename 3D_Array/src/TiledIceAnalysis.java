@@ -0,0 +1,172 @@
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.nio.file.Path;
+
+/**
+ * The TiledIceAnalysis class analyzes ice sheets that are too large for the heap by reading each sheet
+ * in horizontal strips of rows. A strip is held together with a one-row halo above and below it (the last
+ * row of the previous strip and the first row of the next), so every cell of the strip sees all of its
+ * neighbours, and the cracks on strip boundaries are found exactly as in a whole-sheet analysis.
+ * After a strip is scanned, its last row and the halo below are moved to the top of the buffer, and the
+ * rest of the next strip is read after them, so every row is read only once.
+ *
+ * The strip height is chosen so that the strip and its halos fit in the memory budget, but a strip always
+ * has at least one row. The strip is scanned by any IceKernel, and its results are passed to a SheetListener
+ * sheet by sheet, as in StreamingIceAnalysis. Text files are read sequentially, binary files through their
+ * memory-mapped sheets.
+ * Created on October 17, 2026
+ * @author Maharshi Patel
+ */
+public class TiledIceAnalysis {
+
+    // Default memory budget of a strip and its halos, in bytes.
+    public static final long DEFAULT_MEMORY_BUDGET = 64L << 20;
+
+    private final long memoryBudget;
+    private final IceKernel kernel;
+
+    /**
+     * The RowReader interface reads one row of the sheet being analyzed, the rows are read in order.
+     */
+    private interface RowReader {
+        void readRow(int row, int[] destination, int offset) throws IOException;
+    }
+
+    /**
+     * Creates a tiled analysis with the default memory budget.
+     */
+    public TiledIceAnalysis() {
+        this(DEFAULT_MEMORY_BUDGET, IceKernelBackend.FUSED);
+    }
+
+    /**
+     * Creates a tiled analysis.
+     *
+     * @param memoryBudget The most bytes of cells held at the same time.
+     * @param kernel The kernel used to scan each strip.
+     */
+    public TiledIceAnalysis(long memoryBudget, IceKernel kernel) {
+        if (memoryBudget < 1) {
+            throw new IllegalArgumentException("Memory budget must be at least one byte: " + memoryBudget);
+        }
+        this.memoryBudget = memoryBudget;
+        this.kernel = kernel;
+    }
+
+    /**
+     * Returns the number of rows of a strip of a sheet with the given number of columns.
+     *
+     * @param columns The number of columns of the sheet.
+     * @return The strip height, at least 1.
+     */
+    public int stripRows(int columns) {
+        long rowBytes = (long) Math.max(1, columns) * Integer.BYTES;
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, memoryBudget / rowBytes - 2));
+    }
+
+    /**
+     * Analyzes the ice sheets of a text or binary file strip by strip, reporting each sheet to the listener.
+     *
+     * @param filePath The path to the ice sheet file.
+     * @param listener The listener receiving the results of each sheet.
+     * @return The number of sheets analyzed, or -1 if an error occurs.
+     */
+    public int analyze(String filePath, StreamingIceAnalysis.SheetListener listener) {
+        if (IceBinaryFormat.isBinary(filePath)) {
+            IceSheetStore mappedStore = IceBinaryFormat.open(filePath);
+            if (mappedStore == null) {
+                return -1;
+            }
+            IceSheetStore stripStore = new IceSheetStore(mappedStore.sheetCount(), false);
+            IceSheetStore partialStripStore = new IceSheetStore(mappedStore.sheetCount(), true);
+            for (int iceSheet = 0; iceSheet < mappedStore.sheetCount(); iceSheet++) {
+                int sheet = iceSheet;
+                try {
+                    analyzeSheet(stripStore, partialStripStore, iceSheet, mappedStore.rows(iceSheet), mappedStore.columns(iceSheet),
+                            (row, destination, offset) -> mappedStore.copyRow(sheet, row, destination, offset), listener);
+                }
+                catch (IOException exception) {
+                    // Mapped sheets are read from memory and do not fail.
+                    throw new IllegalStateException(exception);
+                }
+            }
+            return mappedStore.sheetCount();
+        }
+
+        try (IceDataTokenizer tokenizer = new IceDataTokenizer(Path.of(filePath))) {
+            int iceSheets = tokenizer.nextInt();
+            IceSheetStore stripStore = new IceSheetStore(iceSheets, false);
+            IceSheetStore partialStripStore = new IceSheetStore(iceSheets, true);
+            for (int iceSheet = 0; iceSheet < iceSheets; iceSheet++) {
+                int rows = tokenizer.nextInt();
+                int columns = tokenizer.nextInt();
+                analyzeSheet(stripStore, partialStripStore, iceSheet, rows, columns, (row, destination, offset) -> {
+                    for (int column = 0; column < columns; column++) {
+                        destination[offset + column] = tokenizer.nextInt();
+                    }
+                }, listener);
+            }
+            return iceSheets;
+        }
+        catch (IOException exception) {
+            // Print an error message if the file is missing or malformed.
+            System.out.println(exception.getMessage());
+        }
+        return -1;
+    }
+
+    /**
+     * Reads and scans one sheet strip by strip, then reports it to the listener.
+     * The strip is put into the strip store under the sheet's own number, so the kernel reports
+     * the right sheet, and only the rows of its cracks have to be moved by the strip's first row.
+     * A strip holding fewer rows than the buffer (the last one of a sheet) goes into the buffer store as
+     * a view over the start of the buffer, so the strip is never copied and the budget is kept.
+     */
+    private void analyzeSheet(IceSheetStore stripStore, IceSheetStore partialStripStore, int iceSheet, int rows, int columns,
+                              RowReader reader, StreamingIceAnalysis.SheetListener listener) throws IOException {
+        int stripRows = stripRows(columns);
+        int bufferRows = (int) Math.min(rows, (long) stripRows + 2);
+        int[] buffer = new int[Math.multiplyExact(bufferRows, columns)];
+
+        // The buffer holds the rows from firstRow on, loadedRows of them.
+        int firstRow = 0;
+        int loadedRows = 0;
+        int weakSpots = 0;
+        LocationList sheetCracks = new LocationList();
+
+        for (int fromRow = 0; fromRow < rows; fromRow += stripRows) {
+            int toRow = Math.min(rows, fromRow + stripRows);
+
+            // Read the rest of the strip and the halo row below it.
+            int lastRow = Math.min(rows, toRow + 1);
+            while (firstRow + loadedRows < lastRow) {
+                reader.readRow(firstRow + loadedRows, buffer, loadedRows * columns);
+                loadedRows++;
+            }
+
+            IceSheetStore scanStore = stripStore;
+            if (loadedRows == bufferRows) {
+                stripStore.putSheet(iceSheet, loadedRows, columns, buffer);
+            }
+            else {
+                partialStripStore.putSheet(iceSheet, loadedRows, columns, IntBuffer.wrap(buffer, 0, loadedRows * columns));
+                scanStore = partialStripStore;
+            }
+            LocationList stripCracks = new LocationList();
+            weakSpots += kernel.scanRows(scanStore, iceSheet, fromRow - firstRow, toRow - firstRow, stripCracks);
+            for (int crack = 0; crack < stripCracks.size(); crack++) {
+                sheetCracks.add(iceSheet, stripCracks.row(crack) + firstRow, stripCracks.column(crack));
+            }
+
+            // Keep the strip's last row as the halo above the next strip, and the halo below as its first row.
+            int keptFrom = Math.max(firstRow, toRow - 1);
+            int keptRows = firstRow + loadedRows - keptFrom;
+            System.arraycopy(buffer, (keptFrom - firstRow) * columns, buffer, 0, keptRows * columns);
+            firstRow = keptFrom;
+            loadedRows = keptRows;
+        }
+        stripStore.releaseSheet(iceSheet);
+        partialStripStore.releaseSheet(iceSheet);
+        listener.sheetAnalyzed(iceSheet, weakSpots, sheetCracks);
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ * The WeakSpotReport class holds the weak spot results of an analysis: the number of weak
+ * spots on each sheet, the total, the sheet with the most weak spots, and optionally the
+ * location of every weak spot. It replaces the five-slot int[][][] returned by
+ * IceDataAnalysis.weakSpots.
+ * Created on October 17, 2026
+ * @author Maharshi Patel
+ */
+public class WeakSpotReport {
+
+    private final int[] weakSpotsPerSheet;
+    private final long totalWeakSpots;
+    private final int maximumWeakSpotsSheet;
+    private final LocationList locations;
+
+    /**
+     * Creates a report from the weak spot count of each sheet.
+     *
+     * @param weakSpotsPerSheet The number of weak spots on each sheet.
+     * @param locations The location of every weak spot, or null if the locations were not collected.
+     */
+    public WeakSpotReport(int[] weakSpotsPerSheet, LocationList locations) {
+        this.weakSpotsPerSheet = weakSpotsPerSheet;
+        this.locations = locations;
+
+        // Work out the total, and the first sheet with the most weak spots.
+        long total = 0;
+        int maximumSheet = 0;
+        for (int iceSheet = 0; iceSheet < weakSpotsPerSheet.length; iceSheet++) {
+            total += weakSpotsPerSheet[iceSheet];
+            if (weakSpotsPerSheet[iceSheet] > weakSpotsPerSheet[maximumSheet]) {
+                maximumSheet = iceSheet;
+            }
+        }
+        this.totalWeakSpots = total;
+        this.maximumWeakSpotsSheet = maximumSheet;
+    }
+
+    /**
+     * Returns the number of sheets in the report.
+     *
+     * @return The number of ice sheets.
+     */
+    public int getSheetCount() {
+        return weakSpotsPerSheet.length;
+    }
+
+    /**
+     * Returns the number of weak spots on a sheet.
+     *
+     * @param iceSheet The sheet number.
+     * @return The number of weak spots on the sheet.
+     */
+    public int getWeakSpots(int iceSheet) {
+        return weakSpotsPerSheet[iceSheet];
+    }
+
+    /**
+     * Returns the total number of weak spots on all sheets.
+     *
+     * @return The total number of weak spots.
+     */
+    public long getTotalWeakSpots() {
+        return totalWeakSpots;
+    }
+
+    /**
+     * Returns the sheet with the most weak spots (the first one if several sheets tie).
+     *
+     * @return The sheet number with the most weak spots.
+     */
+    public int getMaximumWeakSpotsSheet() {
+        return maximumWeakSpotsSheet;
+    }
+
+    /**
+     * Returns the number of weak spots on the sheet with the most weak spots.
+     *
+     * @return The highest number of weak spots on a single sheet.
+     */
+    public int getMaximumWeakSpots() {
+        return weakSpotsPerSheet.length == 0 ? 0 : weakSpotsPerSheet[maximumWeakSpotsSheet];
+    }
+
+    /**
+     * Returns the location of every weak spot, in sheet, row and column order.
+     *
+     * @return The weak spot locations, or null if they were not collected.
+     */
+    public LocationList getLocations() {
+        return locations;
+    }
+}
@@ -0,0 +1,72 @@
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The VectorCrackEngine class builds the row masks of BitsetCrackEngine with the Java Vector API,
+ * evaluating the weak spot and divisible-by-ten predicates on a whole vector of cells at once.
+ * A vector has 4, 8 or 16 int lanes depending on the SIMD width of the processor.
+ *
+ * There is no fast vector division, so divisibility is tested with a multiplication instead:
+ * for d = 2 * m with m odd, an unsigned n is divisible by d exactly when n times the inverse of m
+ * (mod 2^32), rotated right by one bit, is at most (2^32 - 1) / d. Negative values are tested by
+ * their absolute value, which has the same divisors.
+ *
+ * This class needs the jdk.incubator.vector module, so it lives in its own source folder:
+ *     javac -d out src/*.java
+ *     javac -d out -cp out --add-modules jdk.incubator.vector vector/src/*.java
+ *     java -cp out --add-modules jdk.incubator.vector IceDataAnalysis --backend=vector
+ * IceKernelBackend.VECTOR loads it when the module is present and uses the scalar masks otherwise.
+ * Created on October 17, 2026
+ * @author Maharshi Patel
+ */
+public class VectorCrackEngine implements BitsetCrackEngine.RowMasks {
+
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    // Inverses of 5 and 25 modulo 2^32, for the divisibility tests of 10 and 50.
+    private static final int INVERSE_OF_FIVE = 0xCCCCCCCD;
+    private static final int INVERSE_OF_TWENTY_FIVE = 0xC28F5C29;
+
+    // The largest multiples of 10 and 50 in unsigned 32 bits, divided by 10 and 50.
+    private static final int LIMIT_OF_TEN = (int) (0xFFFFFFFFL / 10);
+    private static final int LIMIT_OF_FIFTY = (int) (0xFFFFFFFFL / 50);
+
+    @Override
+    public void build(int[] cells, int rowStart, int columns, long[] tenMask, long[] weakMask) {
+        int lanes = SPECIES.length();
+        for (int word = 1, firstColumn = 0; firstColumn < columns; word++, firstColumn += 64) {
+            int lastColumn = Math.min(columns, firstColumn + 64);
+            long ten = 0;
+            long weak = 0;
+
+            // The lane count divides 64, so only the last vector of a row can be partial.
+            for (int column = firstColumn; column < lastColumn; column += lanes) {
+                VectorMask<Integer> inRow = SPECIES.indexInRange(column, lastColumn);
+                IntVector values = IntVector.fromArray(SPECIES, cells, rowStart + column, inRow);
+                IntVector magnitudes = values.lanewise(VectorOperators.ABS);
+
+                VectorMask<Integer> divisibleByTen = divisible(magnitudes, INVERSE_OF_FIVE, LIMIT_OF_TEN).and(inRow);
+                VectorMask<Integer> weakSpot = values.compare(VectorOperators.LE, 200)
+                        .and(divisible(magnitudes, INVERSE_OF_TWENTY_FIVE, LIMIT_OF_FIFTY))
+                        .and(inRow);
+
+                int shift = column - firstColumn;
+                ten |= divisibleByTen.toLong() << shift;
+                weak |= weakSpot.toLong() << shift;
+            }
+            tenMask[word] = ten;
+            weakMask[word] = weak;
+        }
+    }
+
+    /**
+     * Returns the lanes whose unsigned value is divisible by 2 * m, given the inverse of the odd m.
+     */
+    private static VectorMask<Integer> divisible(IntVector magnitudes, int inverse, int limit) {
+        return magnitudes.mul(inverse)
+                .lanewise(VectorOperators.ROR, 1)
+                .compare(VectorOperators.UNSIGNED_LE, limit);
+    }
+}
@@ -1,7 +1,6 @@
 import battleship.*;
 import java.awt.*;
 import java.util.ArrayList;
-import java.util.List;
 import java.util.Random;
 
 /**
@@ -17,17 +16,42 @@ import java.util.Random;
  * Secondary scan with smaller spacing (phase two)
  * Final scan with even smaller spacing for leftover spots (phase three)
  *
+ * In the DENSITY hunting mode the phases are skipped: every shot goes to the spot covered by the most
+ * legal placements of the ships still afloat (PlacementDensityMap), which is updated after each shot.
+ * The PATTERN hunting mode keeps the three phases.
+ *
+ * The spots that are still in the search pool are kept in a bitboard: bit (x * gameSize + y) of an
+ * array of longs is set while (x, y) has not been shot or ruled out. Three longs hold the 144 spots
+ * of the 12x12 board, so testing or removing a spot is a single bit operation, the spots beside a
+ * cell are a precomputed mask, and the spots left are counted with Long.bitCount.
+ *
  * @author Maharshi Patel (000738366)
  */
 
 public class PatelBot implements BattleShipBot {
+
+    /**
+     * The HuntingMode enum selects how the bot looks for a ship before it has hit one.
+     */
+    public enum HuntingMode {
+        // The spiral scans of phases one to three, then random guesses
+        PATTERN,
+        // The spot covered by the most legal placements of the remaining ships
+        DENSITY
+    }
+
+    private final HuntingMode huntingMode;
     private int gameSize;
     private BattleShip3 battleShip;
 
-    // List of all grid coordinates (x, y)
-    private ArrayList<ArrayList<Integer>> gameBoardGrid;
+    // Bitboard of the spots still in the search pool, bit (x * gameSize + y) stands for (x, y)
+    private long[] gameBoardGrid;
+    // Bitboards of the spots beside (up, down, left, right) each cell, by cell index
+    private long[][] adjacentSpots;
     // Array representation of grid coordinates
     private int[][] gameBoardGridArray;
+    // Placement densities of the spots, kept in step with gameBoardGrid in the DENSITY hunting mode
+    private PlacementDensityMap densityMap;
 
     private ArrayList<Integer> phaseOneHitsLocations;
     int phaseOneHitsCounter;
@@ -36,6 +60,22 @@ public class PatelBot implements BattleShipBot {
     private ArrayList<Integer> phaseThreeHitsLocations;
     int phaseThreeHitsCounter;
 
+    /**
+     * Creates a bot that hunts by placement density.
+     */
+    public PatelBot() {
+        this(HuntingMode.DENSITY);
+    }
+
+    /**
+     * Creates a bot with the given hunting mode.
+     *
+     * @param huntingMode How the bot looks for a ship before it has hit one.
+     */
+    public PatelBot(HuntingMode huntingMode) {
+        this.huntingMode = huntingMode;
+    }
+
     /**
      * Initializes the bot by setting up the game board and phase one, two, and three hit locations.
      *
@@ -50,8 +90,18 @@ public class PatelBot implements BattleShipBot {
         phaseTwoHitsCounter = 0;
         phaseThreeHitsCounter = 0;
 
-        gameBoardGrid = new ArrayList<ArrayList<Integer>>();
         gameBoardGrid = getGameBoard();
+        adjacentSpots = getAdjacentSpots();
+
+        // The placements are listed once, later games only reset the map
+        if (huntingMode == HuntingMode.DENSITY) {
+            if (densityMap == null) {
+                densityMap = new PlacementDensityMap(gameSize, battleShip.getShipSizes());
+            }
+            else {
+                densityMap.reset(battleShip.getShipSizes());
+            }
+        }
 
         gameBoardGridArray = new int[gameSize * gameSize][2];
         gameBoardGridArray = getGameBoardArray();
@@ -69,25 +119,35 @@ public class PatelBot implements BattleShipBot {
     /**
      * Fires a shot based on the current phase's strategy. The bot progresses through each phase,
      * trying to hit pre-determined target locations for that phase. If no targets are left in any phase,
-     * the bot switches to random guesses.
+     * the bot switches to random guesses. In the DENSITY hunting mode, the bot fires at the densest spot instead.
      */
     @Override
     public void fireShot() {
 
-        if (phaseOneHitsCounter < phaseOneHitsLocations.size()) {
+        if (densityMap != null) {
+            // Fire at the spot covered by the most legal placements of the remaining ships
+            int location = densityMap.densestCell();
+            int x = location / gameSize;
+            int y = location % gameSize;
+
+            boolean hit = battleShip.shoot(new Point(x, y));
+
+            if (hit) {
+                hit(x, y);
+            } else {
+                miss(x, y);
+            }
+        }
+
+        else if (phaseOneHitsCounter < phaseOneHitsLocations.size()) {
             // Get the target location from phase one hit locations
             int location = phaseOneHitsLocations.get(phaseOneHitsCounter);
 
             int x = gameBoardGridArray[location][0];
             int y = gameBoardGridArray[location][1];
 
-            // Create coordinates to match against gameBoardGrid
-            ArrayList<Integer> coordinates = new ArrayList<>();
-            coordinates.add(x);
-            coordinates.add(y);
-
-            // Check if the coordinates exist in the grid and fire the shot
-            if (gameBoardGrid.contains(coordinates)) {
+            // Check if the coordinates are still in the grid and fire the shot
+            if (isInGrid(x, y)) {
                 // Fire a shot at the target coordinates
                 boolean hit = battleShip.shoot(new Point(x, y));
 
@@ -108,15 +168,10 @@ public class PatelBot implements BattleShipBot {
             int x = gameBoardGridArray[location][0];
             int y = gameBoardGridArray[location][1];
 
-            // Create coordinates to match against gameBoardGrid
-            ArrayList<Integer> coordinates = new ArrayList<>();
-            coordinates.add(x);
-            coordinates.add(y);
-
-            // Check if the coordinates exist in the grid and fire the shot
-            if (gameBoardGrid.contains(coordinates)) {
+            // Check if the coordinates are still in the grid and fire the shot
+            if (isInGrid(x, y)) {
                 // Check if there are adjacent cells (up, down, left, right) around the target
-                if (gameBoardGrid.contains(new ArrayList<>(List.of(x - 1, y))) || gameBoardGrid.contains(new ArrayList<>(List.of(x + 1, y))) || gameBoardGrid.contains(new ArrayList<>(List.of(x, y - 1))) || gameBoardGrid.contains(new ArrayList<>(List.of(x, y + 1)))) {
+                if (hasAdjacentSpot(location)) {
                     // Fire a shot at the target coordinates
                     boolean hit = battleShip.shoot(new Point(x, y));
 
@@ -138,15 +193,10 @@ public class PatelBot implements BattleShipBot {
             int x = gameBoardGridArray[location][0];
             int y = gameBoardGridArray[location][1];
 
-            // Create coordinates to match against gameBoardGrid
-            ArrayList<Integer> coordinates = new ArrayList<>();
-            coordinates.add(x);
-            coordinates.add(y);
-
-            // Check if the coordinates exist in the grid
-            if (gameBoardGrid.contains(coordinates)) {
+            // Check if the coordinates are still in the grid
+            if (isInGrid(x, y)) {
                 // Check if there are adjacent cells (up, down, left, right) around the target
-                if (gameBoardGrid.contains(new ArrayList<>(List.of(x - 1, y))) || gameBoardGrid.contains(new ArrayList<>(List.of(x + 1, y))) || gameBoardGrid.contains(new ArrayList<>(List.of(x, y - 1))) || gameBoardGrid.contains(new ArrayList<>(List.of(x, y + 1)))) {
+                if (hasAdjacentSpot(location)) {
                     // Fire a shot at the target coordinates
                     boolean hit = battleShip.shoot(new Point(x, y));
 
@@ -163,13 +213,14 @@ public class PatelBot implements BattleShipBot {
 
         // If all phases are exhausted, fire a random shot
         else {
-            // Randomly select a target from the remaining grid coordinates
+            // Randomly select a target from the remaining grid coordinates, in row by row order
             Random random = new Random();
-            int randomIndex = random.nextInt(gameBoardGrid.size());
+            int randomIndex = random.nextInt(countSpots(gameBoardGrid));
+            int location = findSpot(gameBoardGrid, randomIndex);
 
             // Retrieve the selected random target's coordinates
-            int x = gameBoardGrid.get(randomIndex).get(0);
-            int y = gameBoardGrid.get(randomIndex).get(1);
+            int x = location / gameSize;
+            int y = location % gameSize;
 
             // Fire a shot at the random coordinates
             boolean hit = battleShip.shoot(new Point(x, y));
@@ -185,18 +236,24 @@ public class PatelBot implements BattleShipBot {
     /**
      * This method is called when the bot successfully hits a target.
      * It removes the coordinates from the game board grid, sinks the ship, and removes
-     * the surrounding spots to fully mark the ship as sunk.
+     * the surrounding spots to fully mark the ship as sunk. If the ship went down, its length is
+     * removed from the density map.
      *
      * @param x The x-coordinate of the shot location.
      * @param y The y-coordinate of the shot location.
      */
     public void hit(int x, int y){
         // Remove the coordinates where the shot was fired from the game board
-        gameBoardGrid.remove(new ArrayList<>(List.of(x,y)));
+        removeSpot(x, y);
 
-        ArrayList<ArrayList<Integer>> lastSunkShipCoordinates = sinkShip(x,y);
+        int sunkShips = battleShip.numberOfShipsSunk();
+        long[] lastSunkShipCoordinates = sinkShip(x,y);
         removeSurroundingSpots(lastSunkShipCoordinates);
 
+        if (densityMap != null && battleShip.numberOfShipsSunk() > sunkShips) {
+            densityMap.shipSunk(countSpots(lastSunkShipCoordinates));
+        }
+
         //System.out.println(lastSunkShipCoordinates);
 
     }
@@ -209,29 +266,136 @@ public class PatelBot implements BattleShipBot {
      * @param y The y-coordinate of the shot location.
      */
     public void miss(int x, int y){
-        gameBoardGrid.remove(new ArrayList<>(List.of(x,y)));
+        removeSpot(x, y);
     }
 
     /**
      * Initializes the game board with all possible coordinates (from (0,0) to (gameSize-1, gameSize-1)).
-     * It populates the `gameBoardGrid` with a list of coordinate pairs representing all spots on the board.
+     * Every spot of the board is set in the returned bitboard.
      *
-     * @return The `gameBoardGrid` with all the coordinate pairs representing the grid.
+     * @return The bitboard with a bit set for every spot of the grid.
      */
-    public ArrayList<ArrayList<Integer>> getGameBoard() {
-        // Initialize the grid with rows and columns
-        for (int row = 0; row < gameSize; row++) {
-            for (int column = 0; column < gameSize; column++) {
-                // Create a new inner ArrayList for each coordinate pair
-                ArrayList<Integer> coordinates = new ArrayList<>();
-                coordinates.add(row);
-                coordinates.add(column);
+    public long[] getGameBoard() {
+        int spots = gameSize * gameSize;
+        long[] board = new long[(spots + 63) / 64];
+        for (int location = 0; location < spots; location++) {
+            board[location >>> 6] |= 1L << location;
+        }
+        return board;
+    }
+
+    /**
+     * Builds the bitboards of the spots beside (up, down, left, right) every cell, leaving out the spots
+     * that would be off the board.
+     *
+     * @return The adjacent spots of each cell, by cell index (x * gameSize + y).
+     */
+    public long[][] getAdjacentSpots() {
+        long[][] adjacent = new long[gameSize * gameSize][(gameSize * gameSize + 63) / 64];
+        for (int x = 0; x < gameSize; x++) {
+            for (int y = 0; y < gameSize; y++) {
+                long[] mask = adjacent[x * gameSize + y];
+                setSpot(mask, x - 1, y);
+                setSpot(mask, x + 1, y);
+                setSpot(mask, x, y - 1);
+                setSpot(mask, x, y + 1);
+            }
+        }
+        return adjacent;
+    }
+
+    /**
+     * Sets the bit of (x, y) in a bitboard if the spot is on the board.
+     */
+    private void setSpot(long[] board, int x, int y) {
+        if (x >= 0 && x < gameSize && y >= 0 && y < gameSize) {
+            int location = x * gameSize + y;
+            board[location >>> 6] |= 1L << location;
+        }
+    }
+
+    /**
+     * Returns true if (x, y) is on the board and still in the search pool.
+     *
+     * @param x The x-coordinate of the spot.
+     * @param y The y-coordinate of the spot.
+     * @return True if the spot has not been shot or removed.
+     */
+    public boolean isInGrid(int x, int y) {
+        if (x < 0 || x >= gameSize || y < 0 || y >= gameSize) {
+            return false;
+        }
+        int location = x * gameSize + y;
+        return (gameBoardGrid[location >>> 6] & (1L << location)) != 0;
+    }
+
+    /**
+     * Removes (x, y) from the search pool, spots off the board are ignored.
+     * The density map, if any, drops the placements through the spot.
+     *
+     * @param x The x-coordinate of the spot.
+     * @param y The y-coordinate of the spot.
+     */
+    public void removeSpot(int x, int y) {
+        if (x >= 0 && x < gameSize && y >= 0 && y < gameSize) {
+            int location = x * gameSize + y;
+            gameBoardGrid[location >>> 6] &= ~(1L << location);
+            if (densityMap != null) {
+                densityMap.removeCell(location);
+            }
+        }
+    }
+
+    /**
+     * Returns true if any spot beside (up, down, left, right) the cell is still in the search pool.
+     *
+     * @param location The cell index (x * gameSize + y).
+     * @return True if an adjacent spot has not been shot or removed.
+     */
+    public boolean hasAdjacentSpot(int location) {
+        long[] adjacent = adjacentSpots[location];
+        for (int word = 0; word < adjacent.length; word++) {
+            if ((adjacent[word] & gameBoardGrid[word]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Counts the spots set in a bitboard.
+     *
+     * @param board The bitboard.
+     * @return The number of set spots.
+     */
+    public static int countSpots(long[] board) {
+        int count = 0;
+        for (long word : board) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
 
-                // Add the new inner list to the gameBoardGrid
-                gameBoardGrid.add(coordinates);
+    /**
+     * Finds the n-th set spot of a bitboard, counting from 0 in row by row order.
+     *
+     * @param board The bitboard.
+     * @param n The position of the spot among the set spots, less than countSpots(board).
+     * @return The cell index (x * gameSize + y) of the spot.
+     */
+    public static int findSpot(long[] board, int n) {
+        for (int word = 0; ; word++) {
+            long bits = board[word];
+            int count = Long.bitCount(bits);
+            if (n < count) {
+                // Drop the lowest n set bits, the spot is the lowest one left.
+                for (; n > 0; n--) {
+                    bits &= bits - 1;
+                }
+                return (word << 6) + Long.numberOfTrailingZeros(bits);
             }
+            n -= count;
         }
-        return gameBoardGrid;
     }
 
     /**
@@ -327,22 +491,19 @@ public class PatelBot implements BattleShipBot {
      * The method continues shooting at adjacent cells in the same direction if the ship is not fully sunk
      * until it either sinks the ship or there are no more valid cells to shoot in that direction.
      *
-     * The method returns a list of coordinates representing the entire ship that was sunk.
+     * The method returns a bitboard of the coordinates of the entire ship that was sunk.
      * These coordinates are also removed from the game board during the process.
-     * If the ship is successfully sunk, the list of sunk ship coordinates is returned.
+     * If the ship is successfully sunk, the bitboard of the sunk ship coordinates is returned.
      *
      * @param x The X coordinate of the first hit cell on the ship.
      * @param y The Y coordinate of the first hit cell on the ship.
      *
-     * @return An ArrayList of ArrayLists, where each inner list contains the coordinates of a part of the sunk ship.
+     * @return A bitboard with a bit set for every part of the sunk ship (bit x * gameSize + y for (x, y)).
      */
-    public ArrayList<ArrayList<Integer>> sinkShip(int x, int y){
+    public long[] sinkShip(int x, int y){
 
-        ArrayList<ArrayList<Integer>> sinkingShip = new ArrayList<ArrayList<Integer>>();
-        ArrayList<Integer> coordinates = new ArrayList<>();
-        coordinates.add(x);
-        coordinates.add(y);
-        sinkingShip.add(coordinates);
+        long[] sinkingShip = new long[gameBoardGrid.length];
+        setSpot(sinkingShip, x, y);
 
         // Flags to track the direction of the ship (vertical or horizontal).
         boolean verticalShip = false;
@@ -365,45 +526,33 @@ public class PatelBot implements BattleShipBot {
 
         // Check upwards from the initial hit
         while(upperCellHit){
-            ArrayList<Integer> upperCell = new ArrayList<>();
             movingX = movingX - 1;
-            upperCell.add(movingX);
-            upperCell.add(y);
             upperCellHit = false;
 
-            if (gameBoardGrid.contains(upperCell)) {
+            if (isInGrid(movingX, y)) {
                upperCellHit = battleShip.shoot(new Point(movingX, y));
                if(upperCellHit){
                    verticalShip = true;
-                   ArrayList<Integer> newCoordinates = new ArrayList<>();
-                   newCoordinates.add(movingX);
-                   newCoordinates.add(y);
-                   sinkingShip.add(newCoordinates);
-                   gameBoardGrid.remove(newCoordinates);
+                   setSpot(sinkingShip, movingX, y);
+                   removeSpot(movingX, y);
 
-                   if(sunk) {return sinkingShip;}
+                   if(sunk || isSunk(sunkShips)) {return sinkingShip;}
                }
             }
         }
 
         // Check right from the initial hit if the ship is not vertical
         while(rightCellHit && !verticalShip){
-            ArrayList<Integer> rightCell = new ArrayList<>();
             movingY = movingY + 1;
-            rightCell.add(x);
-            rightCell.add(movingY);
             rightCellHit = false;
 
-            if (gameBoardGrid.contains(rightCell)) {
+            if (isInGrid(x, movingY)) {
                 rightCellHit = battleShip.shoot(new Point(x, movingY));
                 if(rightCellHit){
                     horizontalShip = true;
-                    ArrayList<Integer> newCoordinates = new ArrayList<>();
-                    newCoordinates.add(x);
-                    newCoordinates.add(movingY);
-                    sinkingShip.add(newCoordinates);
-                    gameBoardGrid.remove(newCoordinates);
-                    if(sunk) {return sinkingShip;}
+                    setSpot(sinkingShip, x, movingY);
+                    removeSpot(x, movingY);
+                    if(sunk || isSunk(sunkShips)) {return sinkingShip;}
                 }
             }
         }
@@ -413,20 +562,14 @@ public class PatelBot implements BattleShipBot {
 
         // Check downwards from the initial hit if the ship is not horizontal
         while(lowerCellHit  && !horizontalShip){
-            ArrayList<Integer> lowerCell = new ArrayList<>();
             movingX = movingX + 1;
-            lowerCell.add(movingX);
-            lowerCell.add(y);
             lowerCellHit = false;
-            if (gameBoardGrid.contains(lowerCell)) {
+            if (isInGrid(movingX, y)) {
                 lowerCellHit = battleShip.shoot(new Point(movingX, y));
                 if(lowerCellHit){
-                    ArrayList<Integer> newCoordinates = new ArrayList<>();
-                    newCoordinates.add(movingX);
-                    newCoordinates.add(y);
-                    sinkingShip.add(newCoordinates);
-                    gameBoardGrid.remove(newCoordinates);
-                    if(sunk) {return sinkingShip;}
+                    setSpot(sinkingShip, movingX, y);
+                    removeSpot(movingX, y);
+                    if(sunk || isSunk(sunkShips)) {return sinkingShip;}
                 }
             }
         }
@@ -436,50 +579,58 @@ public class PatelBot implements BattleShipBot {
 
         // Check left from the initial hit if the ship is not vertical
         while(leftCellHit  && !verticalShip){
-            ArrayList<Integer> leftCell = new ArrayList<>();
             movingY = movingY - 1;
-            leftCell.add(x);
-            leftCell.add(movingY);
             leftCellHit = false;
-            if (gameBoardGrid.contains(leftCell)) {
+            if (isInGrid(x, movingY)) {
                 leftCellHit = battleShip.shoot(new Point(x, movingY));
                 if(leftCellHit){
-                    ArrayList<Integer> newCoordinates = new ArrayList<>();
-                    newCoordinates.add(x);
-                    newCoordinates.add(movingY);
-                    sinkingShip.add(newCoordinates);
-                    gameBoardGrid.remove(newCoordinates);
-                    if(sunk) {return sinkingShip;}
+                    setSpot(sinkingShip, x, movingY);
+                    removeSpot(x, movingY);
+                    if(sunk || isSunk(sunkShips)) {return sinkingShip;}
                 }
             }
         }
         return sinkingShip;
     }
 
+    /**
+     * Returns true in the DENSITY hunting mode once another ship has been sunk, so the ship being sunk
+     * is not chased past its end. The PATTERN hunting mode keeps walking in every direction.
+     *
+     * @param sunkShips The number of ships sunk before the ship being sunk.
+     * @return True if the ship being sunk went down.
+     */
+    private boolean isSunk(int sunkShips) {
+        return densityMap != null && battleShip.numberOfShipsSunk() > sunkShips;
+    }
+
     /**
      * This method removes the surrounding spots (not diagonal cells) of the last sunk ship
-     * from the game board grid. The method iterates through each coordinate of the
+     * from the game board grid. The method iterates through each part of the
      * last sunk ship and removes its adjacent cells (up, down, left, right) from the grid.
      *
-     * The surrounding spots are removed only if they exist in the grid
+     * The adjacent cells come from the precomputed masks, so spots off the board are never removed.
      *
-     * @param lastSunk An ArrayList of ArrayLists, where each inner list contains the
-     *                 coordinates of a part of the last sunk ship. These coordinates
-     *                 are used to determine which surrounding spots need to be removed.
+     * @param lastSunk A bitboard with a bit set for every part of the last sunk ship.
+     *                 These parts are used to determine which surrounding spots need to be removed.
      */
-    public void removeSurroundingSpots(ArrayList<ArrayList<Integer>> lastSunk) {
-        if (!lastSunk.isEmpty()) {
-
-            for (ArrayList<Integer> coordinates : lastSunk) {
-
-                int x = coordinates.get(0);
-                int y = coordinates.get(1);
+    public void removeSurroundingSpots(long[] lastSunk) {
+        for (int word = 0; word < lastSunk.length; word++) {
+            long parts = lastSunk[word];
+            while (parts != 0) {
+                long[] adjacent = adjacentSpots[(word << 6) + Long.numberOfTrailingZeros(parts)];
 
                 // Remove the surrounding coordinates (up, down, left, right)
-                gameBoardGrid.remove(new ArrayList<>(List.of(x - 1, y)));
-                gameBoardGrid.remove(new ArrayList<>(List.of(x + 1, y)));
-                gameBoardGrid.remove(new ArrayList<>(List.of(x, y - 1)));
-                gameBoardGrid.remove(new ArrayList<>(List.of(x, y + 1)));
+                for (int gridWord = 0; gridWord < adjacent.length; gridWord++) {
+                    long removed = adjacent[gridWord] & gameBoardGrid[gridWord];
+                    gameBoardGrid[gridWord] &= ~removed;
+
+                    // Drop the placements through each spot that was still in the pool
+                    for (; densityMap != null && removed != 0; removed &= removed - 1) {
+                        densityMap.removeCell((gridWord << 6) + Long.numberOfTrailingZeros(removed));
+                    }
+                }
+                parts &= parts - 1;
             }
         }
     }
@@ -0,0 +1,207 @@
+import java.util.Arrays;
+
+/**
+ * The PlacementDensityMap class scores every cell of the board by how many legal placements of the
+ * ships that are still afloat would cover it. A placement is legal while none of its cells has been
+ * shot or ruled out, so misses, sunk ships and the spots around sunk ships all count against it.
+ * The cell with the highest score is the one most likely to hold a ship.
+ *
+ * Every horizontal and vertical placement of each ship length is listed once, together with the
+ * placements covering each cell. The map keeps, for each placement, how many of its cells are no longer
+ * available, and for each ship length, how many legal placements cover each cell. Removing a cell only
+ * visits the placements through it, and sinking a ship only subtracts the coverage of its length, so the
+ * map is updated after each shot without enumerating the placements again.
+ *
+ * @author Maharshi Patel (000738366)
+ */
+public class PlacementDensityMap {
+    // Distinct ship lengths, and the length index of every placement
+    private final int[] shipLengths;
+    private final int[] placementLength;
+    // Cells of every placement, and the placements covering every cell
+    private final int[][] placementCells;
+    private final int[][] cellPlacements;
+    // Legal placements of each length covering each cell on an empty board
+    private final int[][] emptyBoardCoverage;
+
+    // Number of cells of each placement that have been shot or ruled out
+    private final int[] blockedCells;
+    // Legal placements of each length covering each cell
+    private final int[][] coverage;
+    // Ships of each length still afloat
+    private final int[] remainingShips;
+    // Sum over the lengths of the remaining ships times their coverage, by cell
+    private final int[] density;
+    private final boolean[] available;
+
+    /**
+     * Lists the placements of the given ships on a square board and starts a new game.
+     *
+     * @param boardSize The number of rows and columns of the board.
+     * @param shipSizes The lengths of the ships of a game, one entry per ship.
+     */
+    public PlacementDensityMap(int boardSize, int[] shipSizes) {
+        int cells = boardSize * boardSize;
+
+        shipLengths = Arrays.stream(shipSizes).filter(length -> length <= boardSize).distinct().sorted().toArray();
+
+        // Count the placements first: each length fits (boardSize - length + 1) times in each row and column.
+        int placements = 0;
+        for (int length : shipLengths) {
+            placements += 2 * boardSize * (boardSize - length + 1);
+        }
+        placementLength = new int[placements];
+        placementCells = new int[placements][];
+        emptyBoardCoverage = new int[shipLengths.length][cells];
+        int[] cellPlacementCounts = new int[cells];
+
+        int placement = 0;
+        for (int lengthIndex = 0; lengthIndex < shipLengths.length; lengthIndex++) {
+            int length = shipLengths[lengthIndex];
+            for (int line = 0; line < boardSize; line++) {
+                for (int start = 0; start + length <= boardSize; start++) {
+                    // The horizontal placement along row line, then the vertical one along column line
+                    for (int step : new int[] {1, boardSize}) {
+                        int firstCell = step == 1 ? line * boardSize + start : start * boardSize + line;
+                        int[] shipCells = new int[length];
+                        for (int part = 0; part < length; part++) {
+                            shipCells[part] = firstCell + part * step;
+                            emptyBoardCoverage[lengthIndex][shipCells[part]]++;
+                            cellPlacementCounts[shipCells[part]]++;
+                        }
+                        placementLength[placement] = lengthIndex;
+                        placementCells[placement] = shipCells;
+                        placement++;
+                    }
+                }
+            }
+        }
+
+        cellPlacements = new int[cells][];
+        for (int cell = 0; cell < cells; cell++) {
+            cellPlacements[cell] = new int[cellPlacementCounts[cell]];
+            cellPlacementCounts[cell] = 0;
+        }
+        for (placement = 0; placement < placements; placement++) {
+            for (int cell : placementCells[placement]) {
+                cellPlacements[cell][cellPlacementCounts[cell]++] = placement;
+            }
+        }
+
+        blockedCells = new int[placements];
+        coverage = new int[shipLengths.length][cells];
+        remainingShips = new int[shipLengths.length];
+        density = new int[cells];
+        available = new boolean[cells];
+        startGame(shipSizes);
+    }
+
+    /**
+     * Starts a new game: every cell is available again and every ship is afloat.
+     *
+     * @param shipSizes The lengths of the ships of the game, one entry per ship.
+     */
+    public void reset(int[] shipSizes) {
+        startGame(shipSizes);
+    }
+
+    private void startGame(int[] shipSizes) {
+        Arrays.fill(blockedCells, 0);
+        Arrays.fill(available, true);
+        Arrays.fill(remainingShips, 0);
+        for (int length : shipSizes) {
+            int lengthIndex = lengthIndex(length);
+            if (lengthIndex >= 0) {
+                remainingShips[lengthIndex]++;
+            }
+        }
+
+        Arrays.fill(density, 0);
+        for (int lengthIndex = 0; lengthIndex < shipLengths.length; lengthIndex++) {
+            System.arraycopy(emptyBoardCoverage[lengthIndex], 0, coverage[lengthIndex], 0, density.length);
+            for (int cell = 0; cell < density.length; cell++) {
+                density[cell] += remainingShips[lengthIndex] * coverage[lengthIndex][cell];
+            }
+        }
+    }
+
+    /**
+     * Marks a cell as shot or ruled out. Every placement through the cell that was still legal stops
+     * counting towards the cells it covers.
+     *
+     * @param cell The cell index (x * boardSize + y).
+     */
+    public void removeCell(int cell) {
+        if (!available[cell]) {
+            return;
+        }
+        available[cell] = false;
+
+        for (int placement : cellPlacements[cell]) {
+            // Only the first blocked cell of a placement makes it illegal.
+            if (blockedCells[placement]++ == 0) {
+                int lengthIndex = placementLength[placement];
+                int ships = remainingShips[lengthIndex];
+                for (int covered : placementCells[placement]) {
+                    coverage[lengthIndex][covered]--;
+                    density[covered] -= ships;
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes one ship of the given length from the ships still afloat.
+     *
+     * @param length The length of the sunk ship.
+     */
+    public void shipSunk(int length) {
+        int lengthIndex = lengthIndex(length);
+        if (lengthIndex < 0 || remainingShips[lengthIndex] == 0) {
+            return;
+        }
+        remainingShips[lengthIndex]--;
+        for (int cell = 0; cell < density.length; cell++) {
+            density[cell] -= coverage[lengthIndex][cell];
+        }
+    }
+
+    /**
+     * Returns the number of legal placements of the remaining ships covering a cell.
+     *
+     * @param cell The cell index (x * boardSize + y).
+     * @return The density of the cell.
+     */
+    public int getDensity(int cell) {
+        return density[cell];
+    }
+
+    /**
+     * Returns true if the cell has not been shot or ruled out.
+     *
+     * @param cell The cell index (x * boardSize + y).
+     * @return True if the cell is available.
+     */
+    public boolean isAvailable(int cell) {
+        return available[cell];
+    }
+
+    /**
+     * Finds the available cell with the highest density, the first one in row by row order on ties.
+     *
+     * @return The cell index (x * boardSize + y), or -1 if no cell is available.
+     */
+    public int densestCell() {
+        int densest = -1;
+        for (int cell = 0; cell < density.length; cell++) {
+            if (available[cell] && (densest < 0 || density[cell] > density[densest])) {
+                densest = cell;
+            }
+        }
+        return densest;
+    }
+
+    private int lengthIndex(int length) {
+        return Arrays.binarySearch(shipLengths, length);
+    }
+}